@@ -0,0 +1,106 @@
+package com.tsu.api.loadtest;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import com.tsu.api.config.ResponseEncodingConfig;
+import com.tsu.api.http.res.NamespaceResponse;
+import com.tsu.common.data.ApiResponseWrapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.IntStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Bytes on the wire and serialization CPU per request for a {@code GET /namespaces} response,
+ * per encoding, with and without gzip.
+ * <p>
+ * Run with {@code mvn -Ploadtest test-compile exec:java -Dexec.mainClass=com.tsu.api.loadtest.EncodingBenchmark};
+ * {@code bench.items} (20) sets the list size and {@code bench.iterations} (200000) the measured repetitions.
+ */
+public class EncodingBenchmark {
+
+    public static void main(String[] args) throws IOException {
+        int items = Integer.getInteger("bench.items", 20);
+        int iterations = Integer.getInteger("bench.iterations", 200_000);
+        ApiResponseWrapper<List<NamespaceResponse>> response = ApiResponseWrapper.success(sample(items),
+                "Namespaces retrieved successfully");
+
+        System.out.printf(Locale.ROOT, "# GET /namespaces response with %d items, %d iterations%n", items, iterations);
+        System.out.printf(Locale.ROOT, "%-16s %10s %10s %14s %14s%n", "encoding", "bytes", "gzip", "cpu ns/op", "gzip cpu ns/op");
+        run("json", writer(new JsonFactory(), false), response, iterations);
+        run("json+blackbird", writer(new JsonFactory(), true), response, iterations);
+        run("cbor+blackbird", writer(new CBORFactory(), true), response, iterations);
+        run("smile+blackbird", writer(new SmileFactory(), true), response, iterations);
+    }
+
+    private static ObjectWriter writer(JsonFactory factory, boolean blackbird) {
+        ObjectMapper mapper = new ObjectMapper(factory)
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        if (blackbird) {
+            mapper.registerModule(new BlackbirdModule());
+        }
+        return mapper.writerFor(ResponseEncodingConfig.NAMESPACE_LIST);
+    }
+
+    private static void run(String name, ObjectWriter writer, Object value, int iterations) throws IOException {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        byte[] bytes = writer.writeValueAsBytes(value);
+        byte[] gzipped = gzip(bytes);
+        // warm up so that both paths are JIT compiled before measuring
+        for (int i = 0; i < iterations / 4; i++) {
+            gzip(writer.writeValueAsBytes(value));
+        }
+        long start = threads.getCurrentThreadCpuTime();
+        for (int i = 0; i < iterations; i++) {
+            writer.writeValueAsBytes(value);
+        }
+        long plain = (threads.getCurrentThreadCpuTime() - start) / iterations;
+        start = threads.getCurrentThreadCpuTime();
+        for (int i = 0; i < iterations; i++) {
+            gzip(writer.writeValueAsBytes(value));
+        }
+        long compressed = (threads.getCurrentThreadCpuTime() - start) / iterations;
+        System.out.printf(Locale.ROOT, "%-16s %10d %10d %14d %14d%n", name, bytes.length, gzipped.length, plain, compressed);
+    }
+
+    private static byte[] gzip(byte[] bytes) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length / 2);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(bytes);
+        }
+        return out.toByteArray();
+    }
+
+    private static List<NamespaceResponse> sample(int items) {
+        LocalDateTime now = LocalDateTime.now();
+        return IntStream.range(0, items)
+                .mapToObj(i -> NamespaceResponse.builder()
+                        .id(String.format("%08d-0000-4000-8000-%012d", i, i))
+                        .name("Namespace " + i)
+                        .displayName("Namespace " + i)
+                        .description("Shared workspace for team " + i + " with documents and schedules")
+                        .status("active")
+                        .environment("production")
+                        .createdAt(now.minusDays(i))
+                        .updatedAt(now)
+                        .contactEmail("owner" + i + "@example.com")
+                        .visibility("public")
+                        .accessLevel("open")
+                        .contextPath("namespace-" + i)
+                        .build())
+                .toList();
+    }
+}
@@ -0,0 +1,60 @@
+package com.tsu.api.loadtest;
+
+import java.util.Arrays;
+
+/**
+ * Collects latencies of one operation; percentiles are exact, computed from the sorted samples.
+ * Any status of 400 or above, or no response at all, is an error; 404s are also counted on their
+ * own, so a probe that points at missing namespaces shows up as such in the report.
+ */
+public class LatencyRecorder {
+
+    private final String operation;
+    private long[] samples = new long[1024];
+    private int size;
+    private long errors;
+    private long notFound;
+
+    public LatencyRecorder(String operation) {
+        this.operation = operation;
+    }
+
+    /**
+     * @param status the HTTP status, or -1 when no response was received
+     */
+    public synchronized void record(long nanos, int status) {
+        if (size == samples.length) {
+            samples = Arrays.copyOf(samples, size * 2);
+        }
+        samples[size++] = nanos;
+        if (!Workload.isSuccess(status)) {
+            errors++;
+        }
+        if (status == 404) {
+            notFound++;
+        }
+    }
+
+    public synchronized Summary summarize(double seconds) {
+        long[] sorted = Arrays.copyOf(samples, size);
+        Arrays.sort(sorted);
+        return new Summary(operation, size, errors, notFound, size / seconds,
+                percentile(sorted, 0.50), percentile(sorted, 0.90), percentile(sorted, 0.99),
+                sorted.length == 0 ? 0 : sorted[sorted.length - 1] / 1_000_000.0);
+    }
+
+    private static double percentile(long[] sorted, double p) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(p * sorted.length) - 1;
+        return sorted[Math.max(index, 0)] / 1_000_000.0;
+    }
+
+    /**
+     * Latencies in milliseconds.
+     */
+    public record Summary(String operation, long count, long errors, long notFound, double throughput,
+                          double p50, double p90, double p99, double max) {
+    }
+}
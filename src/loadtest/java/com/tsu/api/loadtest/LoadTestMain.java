@@ -0,0 +1,121 @@
+package com.tsu.api.loadtest;
+
+import com.tsu.api.bootstrap.BxSpaceAppBootstrap;
+import com.tsu.api.support.StubKeycloakServer;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end load test that runs entirely offline: embedded Postgres, a stub Keycloak for JWKS
+ * and tokens, and the file system store provider of the dev profile (buckets under /tmp) in place of GCS.
+ * <p>
+ * Settings (system properties): {@code loadtest.users} (20), {@code loadtest.concurrency} (32),
+ * {@code loadtest.seed} namespaces created up front (50), {@code loadtest.warmup} seconds (20),
+ * {@code loadtest.duration} seconds (60) and {@code loadtest.label} used in the report file name
+ * (defaults to the current commit). Reports are written to {@code target/loadtest/}.
+ */
+public class LoadTestMain {
+
+    public static void main(String[] args) throws Exception {
+        int users = Integer.getInteger("loadtest.users", 20);
+        int concurrency = Integer.getInteger("loadtest.concurrency", 32);
+        int seed = Integer.getInteger("loadtest.seed", 50);
+        int warmupSeconds = Integer.getInteger("loadtest.warmup", 20);
+        int durationSeconds = Integer.getInteger("loadtest.duration", 60);
+        String label = System.getProperty("loadtest.label", currentCommit());
+
+        try (EmbeddedPostgres postgres = EmbeddedPostgres.builder().start();
+             StubKeycloakServer keycloak = new StubKeycloakServer()) {
+            ConfigurableApplicationContext context = new SpringApplicationBuilder(BxSpaceAppBootstrap.class)
+                    .profiles("dev", "loadtest")
+                    .properties(Map.of(
+                            "spring.datasource.url", postgres.getJdbcUrl("postgres", "postgres"),
+                            "spring.datasource.username", "postgres",
+                            "spring.datasource.password", "postgres",
+                            "spring.security.oauth2.resourceserver.jwt.issuer-uri", keycloak.issuer(),
+                            "spring.security.oauth2.resourceserver.jwt.jwk-set-uri", keycloak.issuer() + "/protocol/openid-connect/certs",
+                            "keycloak.url", keycloak.baseUrl(),
+                            "keycloak.realm", StubKeycloakServer.REALM,
+                            "keycloak.token-endpoint", keycloak.issuer() + "/protocol/openid-connect/token",
+                            "keycloak.userinfo-endpoint", keycloak.issuer() + "/protocol/openid-connect/userinfo"))
+                    .run();
+            try {
+                int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+                String baseUrl = "http://127.0.0.1:" + port + "/api";
+                List<String> tokens = new ArrayList<>();
+                for (int i = 0; i < users; i++) {
+                    tokens.add(keycloak.token("loaduser" + i, "loaduser" + i + "@loadtest.local"));
+                }
+
+                Map<String, LatencyRecorder> recorders = new ConcurrentHashMap<>();
+                List<String> uris = new ArrayList<>();
+                Workload setup = new Workload(baseUrl, tokens, List.of("seed"), recorders);
+                for (int i = 0; i < seed; i++) {
+                    String uri = "seed-" + i;
+                    if (setup.create(tokens.get(i % tokens.size()), uri)) {
+                        uris.add(uri);
+                    }
+                }
+                if (uris.isEmpty()) {
+                    throw new IllegalStateException("Could not seed any namespace; check the application log");
+                }
+                Workload workload = new Workload(baseUrl, tokens, uris, recorders);
+
+                System.out.printf("Warming up for %ds with %d workers%n", warmupSeconds, concurrency);
+                run(workload, concurrency, warmupSeconds, false);
+                System.out.printf("Measuring for %ds%n", durationSeconds);
+                long start = System.nanoTime();
+                run(workload, concurrency, durationSeconds, true);
+                double elapsed = (System.nanoTime() - start) / 1e9;
+
+                List<LatencyRecorder.Summary> summaries = recorders.values().stream()
+                        .map(recorder -> recorder.summarize(elapsed))
+                        .sorted(Comparator.comparing(LatencyRecorder.Summary::operation))
+                        .toList();
+                String report = LoadTestReport.format(label, users, concurrency, durationSeconds, summaries);
+                Path out = Paths.get("target", "loadtest", "report-" + label + ".txt");
+                Files.createDirectories(out.getParent());
+                Files.writeString(out, report);
+                System.out.print(report);
+                System.out.println("Report written to " + out.toAbsolutePath());
+            } finally {
+                context.close();
+            }
+        }
+    }
+
+    private static void run(Workload workload, int concurrency, int seconds, boolean record) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < concurrency; i++) {
+                executor.submit(() -> {
+                    while (System.nanoTime() < deadline) {
+                        workload.step(record);
+                    }
+                });
+            }
+        }
+    }
+
+    private static String currentCommit() {
+        try {
+            Process process = new ProcessBuilder("git", "rev-parse", "--short", "HEAD").start();
+            String commit = new String(process.getInputStream().readAllBytes()).trim();
+            return process.waitFor() == 0 && !commit.isEmpty() ? commit : "local";
+        } catch (IOException | InterruptedException e) {
+            return "local";
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.tsu.api.loadtest;
+
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Plain-text report with one fixed-format line per operation, sorted by name, so reports of
+ * two commits can be compared with an ordinary diff.
+ */
+final class LoadTestReport {
+
+    private LoadTestReport() {
+    }
+
+    static String format(String label, int users, int concurrency, int durationSeconds,
+                         List<LatencyRecorder.Summary> summaries) {
+        StringBuilder out = new StringBuilder();
+        out.append("# bxspace-api load test: ").append(label).append('\n');
+        out.append(String.format(Locale.ROOT, "# users=%d concurrency=%d duration=%ds java=%s cpus=%d%n",
+                users, concurrency, durationSeconds, System.getProperty("java.version"),
+                Runtime.getRuntime().availableProcessors()));
+        out.append(String.format(Locale.ROOT, "%-10s %10s %8s %8s %10s %9s %9s %9s %9s%n",
+                "operation", "count", "errors", "404s", "req/s", "p50 ms", "p90 ms", "p99 ms", "max ms"));
+        long total = 0;
+        double throughput = 0;
+        for (LatencyRecorder.Summary s : summaries) {
+            out.append(String.format(Locale.ROOT, "%-10s %10d %8d %8d %10.1f %9.2f %9.2f %9.2f %9.2f%n",
+                    s.operation(), s.count(), s.errors(), s.notFound(), s.throughput(), s.p50(), s.p90(), s.p99(), s.max()));
+            total += s.count();
+            throughput += s.throughput();
+        }
+        out.append(String.format(Locale.ROOT, "%-10s %10d %8s %8s %10.1f%n", "total", total, "", "", throughput));
+        return out.toString();
+    }
+}
@@ -0,0 +1,130 @@
+package com.tsu.api.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Weighted mix of API operations, each recorded under its own name.
+ * <p>
+ * Weights reflect a typical session: mostly listing and detail views, bursts of URI checks
+ * while a user types a new namespace URI, occasional creates and typeahead searches.
+ */
+public class Workload {
+
+    public enum Operation {
+        list(40), detail(25), checkUri(20), search(10), create(5);
+
+        final int weight;
+
+        Operation(int weight) {
+            this.weight = weight;
+        }
+    }
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+    private final String baseUrl;
+    private final List<String> tokens;
+    private final List<String> uris;
+    private final Map<String, LatencyRecorder> recorders;
+    private final int totalWeight = Arrays.stream(Operation.values()).mapToInt(op -> op.weight).sum();
+
+    public Workload(String baseUrl, List<String> tokens, List<String> uris, Map<String, LatencyRecorder> recorders) {
+        this.baseUrl = baseUrl;
+        this.tokens = tokens;
+        this.uris = Collections.synchronizedList(new ArrayList<>(uris));
+        this.recorders = recorders;
+    }
+
+    /**
+     * Run one randomly chosen operation.
+     *
+     * @param record false during warm-up
+     */
+    public void step(boolean record) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        String token = tokens.get(random.nextInt(tokens.size()));
+        int pick = random.nextInt(totalWeight);
+        Operation operation = Operation.list;
+        for (Operation candidate : Operation.values()) {
+            pick -= candidate.weight;
+            if (pick < 0) {
+                operation = candidate;
+                break;
+            }
+        }
+        switch (operation) {
+            case list -> call(operation.name(), token, get("/namespaces"), record);
+            case detail -> call(operation.name(), token, get("/namespaces/uri/" + randomUri()), record);
+            case checkUri -> {
+                // one request per keystroke, as the create form does
+                String target = "ns-" + Long.toString(random.nextLong(Long.MAX_VALUE), 36);
+                for (int i = 4; i <= target.length(); i += 2) {
+                    call(operation.name(), token, get("/namespaces/check-uri/" + target.substring(0, i)), record);
+                }
+            }
+            case search -> {
+                String uri = randomUri();
+                call(operation.name(), token, get("/namespaces/search?q=" + uri.substring(0, Math.min(4, uri.length()))), record);
+            }
+            case create -> {
+                String uri = "lt-" + UUID.randomUUID().toString().substring(0, 12);
+                if (call(operation.name(), token, post("/namespaces", createBody(uri)), record)) {
+                    uris.add(uri);
+                }
+            }
+        }
+    }
+
+    public boolean create(String token, String uri) {
+        return call(Operation.create.name(), token, post("/namespaces", createBody(uri)), false);
+    }
+
+    private String randomUri() {
+        return uris.get(ThreadLocalRandom.current().nextInt(uris.size()));
+    }
+
+    private static String createBody(String uri) {
+        return """
+                {"nme":"Load %s","desc":"Load test namespace %s","own":"loadtest","eml":"owner@loadtest.local","acc":"open","uri":"%s"}
+                """.formatted(uri, uri, uri);
+    }
+
+    private HttpRequest.Builder get(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path)).GET();
+    }
+
+    private HttpRequest.Builder post(String path, String body) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body));
+    }
+
+    static boolean isSuccess(int status) {
+        return status >= 0 && status < 400;
+    }
+
+    private boolean call(String name, String token, HttpRequest.Builder request, boolean record) {
+        long start = System.nanoTime();
+        int status;
+        try {
+            HttpResponse<Void> response = client.send(request
+                    .header("Authorization", "Bearer " + token)
+                    .timeout(Duration.ofSeconds(30))
+                    .build(), HttpResponse.BodyHandlers.discarding());
+            status = response.statusCode();
+        } catch (Exception e) {
+            status = -1;
+        }
+        if (record) {
+            recorders.computeIfAbsent(name, LatencyRecorder::new).record(System.nanoTime() - start, status);
+        }
+        return isSuccess(status);
+    }
+}
@@ -0,0 +1,66 @@
+package com.tsu.api.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Configuration properties for per-principal/per-namespace admission control
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "admission")
+public class AdmissionControlConfig {
+
+    private boolean enabled = true;
+
+    /**
+     * Limits for requests that do not target a namespace, or whose namespace tier is not configured
+     */
+    private Limit defaultLimit = new Limit();
+
+    /**
+     * Limits keyed by namespace access level (open, approval, invitation)
+     */
+    private Map<String, Limit> tiers = new HashMap<>();
+
+    /**
+     * Maximum in-flight requests per endpoint class (uri-check, member-query, write, read)
+     */
+    private Map<String, Integer> bulkheads = new HashMap<>(Map.of(
+            "uri-check", 8,
+            "member-query", 6,
+            "write", 6,
+            "read", 16));
+
+    /**
+     * Number of tracked buckets above which idle buckets are swept
+     */
+    private int maxBuckets = 50000;
+
+    /**
+     * Tracked buckets never exceed this; callers without a bucket then share one overflow bucket
+     * per endpoint class until a sweep frees room
+     */
+    private int hardMaxBuckets = 100000;
+
+    /**
+     * Minimum time between two sweeps of idle buckets, in milliseconds
+     */
+    private long sweepInterval = 1000;
+
+    @Data
+    public static class Limit {
+        /**
+         * Sustained requests per second
+         */
+        private double rate = 20;
+        /**
+         * Requests allowed in a burst above the sustained rate
+         */
+        private int burst = 40;
+    }
+}
@@ -1,12 +1,26 @@
 package com.tsu.api.config;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.auth.oauth2.GoogleCredentials;
 import com.google.auth.oauth2.ServiceAccountCredentials;
 import com.google.cloud.storage.Storage;
 import com.google.cloud.storage.StorageOptions;
 import com.tsu.api.controller.NamespaceController;
 import com.tsu.api.controller.UserProfileController;
+import com.tsu.api.security.AdmissionControlFilter;
 import com.tsu.api.service.NamespaceService;
+import com.tsu.api.service.NamespaceTierResolver;
+import com.tsu.api.service.keycloak.CircuitBreaker;
+import com.tsu.api.service.keycloak.CircuitBreakingHttpEngine;
+import com.tsu.api.service.storage.BucketDrainer;
+import com.tsu.api.service.storage.BucketUsageScanner;
+import com.tsu.api.service.storage.FileSystemBucketDrainer;
+import com.tsu.api.service.storage.FileSystemBucketUsageScanner;
+import com.tsu.api.service.storage.FileSystemUsageWatcher;
+import com.tsu.api.service.storage.GcsBucketDrainer;
+import com.tsu.api.service.storage.GcsBucketUsageScanner;
+import com.tsu.api.service.storage.StorageUsageTracker;
+import com.tsu.api.service.storage.UsageTrackingStorage;
 import com.tsu.auth.api.AuthProvider;
 import com.tsu.auth.keycloak.KeycloakConfig;
 import com.tsu.auth.keycloak.KeycloakUtils;
@@ -22,43 +36,93 @@ import com.tsu.namespace.security.WebRequestContextInitializer;
 import com.tsu.namespace.service.LoginService;
 import com.tsu.namespace.service.UserService;
 import com.tsu.namespace.service.impl.LoginServiceImpl;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.netty.channel.ChannelOption;
 import io.netty.handler.timeout.ReadTimeoutHandler;
 import io.netty.handler.timeout.WriteTimeoutHandler;
 import jakarta.servlet.http.HttpServletRequest;
+import jakarta.ws.rs.ProcessingException;
 import lombok.extern.slf4j.Slf4j;
+import org.jboss.resteasy.client.jaxrs.ResteasyClientBuilder;
+import org.jboss.resteasy.client.jaxrs.engines.ClientHttpEngineBuilder43;
+import org.keycloak.OAuth2Constants;
 import org.keycloak.admin.client.Keycloak;
+import org.keycloak.admin.client.KeycloakBuilder;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.*;
 import org.springframework.http.HttpMethod;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.oauth2.server.resource.web.authentication.BearerTokenAuthenticationFilter;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.util.StringUtils;
 import org.springframework.web.context.WebApplicationContext;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import reactor.core.publisher.Mono;
+import reactor.netty.Connection;
 import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
 
 import javax.net.ssl.SSLException;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
 
 @Slf4j
 @EnableConfigurationProperties({KeycloakConfig.class, GcsConfig.class})
 @ComponentScan(basePackageClasses = {UserProfileController.class, NamespaceController.class, NamespaceService.class})
+@EnableScheduling
 @Configuration
 public class ApiConfig {
 
 
+    @Bean
+    public CircuitBreaker keycloakCircuitBreaker(KeycloakClientConfig clientConfig, MeterRegistry meterRegistry) {
+        CircuitBreaker breaker = new CircuitBreaker("keycloak", clientConfig.getFailureThreshold(),
+                clientConfig.getOpenDuration());
+        Gauge.builder("keycloak.circuit.open", breaker, b -> b.getState() == CircuitBreaker.State.CLOSED ? 0 : 1)
+                .register(meterRegistry);
+        return breaker;
+    }
+
+    @Bean(destroyMethod = "close")
+    public Keycloak keycloakAdminClient(KeycloakConfig config, KeycloakClientConfig clientConfig,
+                                        CircuitBreaker keycloakCircuitBreaker) {
+        ResteasyClientBuilder builder = ((ResteasyClientBuilder) ResteasyClientBuilder.newBuilder())
+                .connectionPoolSize(clientConfig.getMaxConnections())
+                .maxPooledPerRoute(clientConfig.getMaxConnections())
+                .connectionTTL(clientConfig.getMaxLifeTime(), TimeUnit.MILLISECONDS)
+                .connectionCheckoutTimeout(clientConfig.getAcquireTimeout(), TimeUnit.MILLISECONDS)
+                .connectTimeout(clientConfig.getConnectTimeout(), TimeUnit.MILLISECONDS)
+                .readTimeout(clientConfig.getReadTimeout(), TimeUnit.MILLISECONDS);
+        builder.httpEngine(new CircuitBreakingHttpEngine(
+                new ClientHttpEngineBuilder43().resteasyClientBuilder(builder).build(),
+                keycloakCircuitBreaker, clientConfig.getSlowCallThreshold()));
+        Keycloak keycloak = KeycloakBuilder.builder()
+                .serverUrl(config.getUrl())
+                .realm(config.getRealm())
+                .username(config.getUsername())
+                .password(config.getPassword())
+                .clientId(config.getClientId())
+                .clientSecret(config.getSecret())
+                .grantType(OAuth2Constants.PASSWORD)
+                .resteasyClient(builder.build())
+                .build();
+        keycloak.tokenManager().setMinTokenValidity(clientConfig.getTokenMinValidity());
+        return keycloak;
+    }
+
     @Bean
     public KeycloakAuthService keycloakAuthService(KeycloakConfig config,
+                                                   Keycloak keycloakAdminClient,
                                                    UserService userService) {
-        Keycloak keycloak = Keycloak.getInstance(config.getUrl(), config.getRealm(),
-                config.getUsername(), config.getPassword(), config.getClientId(),
-                config.getSecret(), null);
-        return new KeycloakAuthService(config.getRealm(), keycloak, userService);
+        return new KeycloakAuthService(config.getRealm(), keycloakAdminClient, userService);
     }
 
     @Bean
@@ -69,11 +133,35 @@ public class ApiConfig {
     }
 
     @Bean
-    public KeycloakUtils keycloakUtils(KeycloakConfig config) throws SSLException {
-        HttpClient httpClient = HttpClient.create()
+    public KeycloakUtils keycloakUtils(KeycloakConfig config, KeycloakClientConfig clientConfig,
+                                       CircuitBreaker keycloakCircuitBreaker) throws SSLException {
+        ConnectionProvider provider = ConnectionProvider.builder("keycloak")
+                .maxConnections(clientConfig.getMaxConnections())
+                .pendingAcquireMaxCount(clientConfig.getMaxPendingAcquires())
+                .pendingAcquireTimeout(Duration.ofMillis(clientConfig.getAcquireTimeout()))
+                .maxIdleTime(Duration.ofMillis(clientConfig.getMaxIdleTime()))
+                .maxLifeTime(Duration.ofMillis(clientConfig.getMaxLifeTime()))
+                .evictInBackground(Duration.ofSeconds(30))
+                .build();
+        HttpClient httpClient = HttpClient.create(provider)
+                .keepAlive(true)
+                .option(ChannelOption.SO_KEEPALIVE, true)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, clientConfig.getConnectTimeout())
+                .mapConnect(connect -> Mono.defer(() -> keycloakCircuitBreaker.tryAcquirePermission()
+                        ? connect.cast(Connection.class)
+                        : Mono.error(new ProcessingException("Keycloak unavailable (circuit open)"))))
+                .doOnResponse((response, conn) -> {
+                    if (response.status().code() >= 500) {
+                        keycloakCircuitBreaker.onFailure();
+                    } else {
+                        keycloakCircuitBreaker.onSuccess();
+                    }
+                })
+                .doOnError((request, e) -> keycloakCircuitBreaker.onFailure(),
+                        (response, e) -> keycloakCircuitBreaker.onFailure())
                 .doOnConnected(conn -> conn
-                        .addHandlerLast(new ReadTimeoutHandler(10))
-                        .addHandlerLast(new WriteTimeoutHandler(10)));
+                        .addHandlerLast(new ReadTimeoutHandler(clientConfig.getReadTimeout(), TimeUnit.MILLISECONDS))
+                        .addHandlerLast(new WriteTimeoutHandler(clientConfig.getWriteTimeout(), TimeUnit.MILLISECONDS)));
         return new KeycloakUtils(config, httpClient);
     }
 
@@ -113,9 +201,27 @@ public class ApiConfig {
         return new FileSystemStoreProvider("local", "/tmp");
     }
 
+    @Profile("dev")
+    @Bean
+    public BucketUsageScanner fileSystemUsageScanner() {
+        return new FileSystemBucketUsageScanner(Paths.get("/tmp"));
+    }
+
+    @Profile("dev")
+    @Bean
+    public FileSystemUsageWatcher fileSystemUsageWatcher(StorageUsageTracker usageTracker) {
+        return new FileSystemUsageWatcher(Paths.get("/tmp"), usageTracker);
+    }
+
+    @Profile("dev")
+    @Bean
+    public BucketDrainer fileSystemBucketDrainer() {
+        return new FileSystemBucketDrainer(Paths.get("/tmp"));
+    }
+
     @Profile({"prod", "gcp"})
     @Bean
-    public FileStoreProvider googleCloudStorage(GcsConfig config) throws IOException {
+    public Storage googleStorage(GcsConfig config) throws IOException {
         GoogleCredentials credentials;
         if (StringUtils.hasText(config.getCredentialsPath())) {
             // Load credentials from file
@@ -129,17 +235,45 @@ public class ApiConfig {
             log.info("Using Application Default Credentials for GCS");
             credentials = GoogleCredentials.getApplicationDefault();
         }
-        Storage storage = StorageOptions.newBuilder()
+        return StorageOptions.newBuilder()
                 .setProjectId(config.getProjectId())
                 .setCredentials(credentials)
                 .build()
                 .getService();
-        return new CloudStorageStoreProvider(config.getName(), storage);
+    }
+
+    @Profile({"prod", "gcp"})
+    @Bean
+    public FileStoreProvider googleCloudStorage(GcsConfig config, Storage googleStorage,
+                                                StorageUsageTracker usageTracker) {
+        // object writes and deletes of the provider are accounted and quota-checked on the client it uses
+        return new CloudStorageStoreProvider(config.getName(), UsageTrackingStorage.wrap(googleStorage, usageTracker));
+    }
+
+    @Profile({"prod", "gcp"})
+    @Bean
+    public BucketUsageScanner gcsUsageScanner(Storage googleStorage) {
+        return new GcsBucketUsageScanner(googleStorage);
+    }
+
+    @Profile({"prod", "gcp"})
+    @Bean
+    public BucketDrainer gcsBucketDrainer(Storage googleStorage) {
+        // deliberately the untracked client: a drained bucket is forgotten by the usage tracker
+        // once deleted, so recording its deletes would only add per-object work
+        return new GcsBucketDrainer(googleStorage);
     }
 
 
     @Bean
-    public SecurityFilterChain securityFilterChain(HttpSecurity http, AppAuthenticationTokenConverter converter) throws Exception {
+    public SecurityFilterChain securityFilterChain(HttpSecurity http, AppAuthenticationTokenConverter converter,
+                                                   AdmissionControlConfig admissionConfig,
+                                                   NamespaceTierResolver tierResolver,
+                                                   ObjectMapper objectMapper,
+                                                   MeterRegistry meterRegistry) throws Exception {
+        // not a bean, so it is not registered a second time as a plain servlet filter
+        AdmissionControlFilter admissionControlFilter =
+                new AdmissionControlFilter(admissionConfig, tierResolver, objectMapper, meterRegistry);
         http
                 .authorizeHttpRequests((authorize) -> authorize
                         // Allow all OPTIONS requests for CORS preflight
@@ -160,7 +294,8 @@ public class ApiConfig {
                 .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                 .oauth2ResourceServer((oauth2) -> oauth2
                         .jwt(jwtConfigurer -> jwtConfigurer.jwtAuthenticationConverter(converter))
-                );
+                )
+                .addFilterAfter(admissionControlFilter, BearerTokenAuthenticationFilter.class);
         return http.build();
     }
 
@@ -0,0 +1,34 @@
+package com.tsu.api.config;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+
+/**
+ * Creates the tables owned by this application during the app-upgrade run, alongside the schema
+ * upgrade of the bx libraries, so serving instances never run DDL on startup. The load test
+ * profile applies it too because it starts from an empty database.
+ */
+@Slf4j
+@Profile({"app-upgrade", "loadtest"})
+@Component
+@RequiredArgsConstructor
+public class ApiSchemaUpgrade implements ApplicationRunner {
+
+    static final String SCHEMA = "db/bxspace-api-schema.sql";
+
+    private final DataSource dataSource;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        new ResourceDatabasePopulator(new ClassPathResource(SCHEMA)).execute(dataSource);
+        log.info("Applied {}", SCHEMA);
+    }
+}
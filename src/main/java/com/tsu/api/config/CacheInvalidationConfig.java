@@ -0,0 +1,44 @@
+package com.tsu.api.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Configuration properties for the cross-instance cache invalidation bus
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "cache.invalidation")
+public class CacheInvalidationConfig {
+
+    /**
+     * Whether invalidation events are published to and received from Postgres
+     */
+    private boolean enabled = true;
+
+    /**
+     * Postgres LISTEN/NOTIFY channel shared by all instances
+     */
+    private String channel = "bx_cache_invalidation";
+
+    /**
+     * How often pending invalidations are coalesced and published, in milliseconds
+     */
+    private long flushInterval = 50;
+
+    /**
+     * Pending keys per region above which a full region clear is published instead
+     */
+    private int maxKeysPerRegion = 200;
+
+    /**
+     * How long the listener waits for notifications per poll, in milliseconds
+     */
+    private int pollTimeout = 1000;
+
+    /**
+     * Delay before reconnecting the listener after a connection failure, in milliseconds
+     */
+    private long reconnectDelay = 5000;
+}
@@ -0,0 +1,84 @@
+package com.tsu.api.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Connection pool, token and circuit breaker settings for outbound Keycloak calls
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "keycloak.client")
+public class KeycloakClientConfig {
+
+    /**
+     * Maximum pooled connections to Keycloak
+     */
+    private int maxConnections = 20;
+
+    /**
+     * Requests waiting for a pooled connection before new ones fail fast (reactive client)
+     */
+    private int maxPendingAcquires = 50;
+
+    /**
+     * Connection timeout in milliseconds
+     */
+    private int connectTimeout = 3000;
+
+    /**
+     * Read timeout in milliseconds
+     */
+    private int readTimeout = 10000;
+
+    /**
+     * Time allowed for writing a request to the connection, in milliseconds (reactive client)
+     */
+    private int writeTimeout = 10000;
+
+    /**
+     * Time to wait for a pooled connection, in milliseconds
+     */
+    private int acquireTimeout = 2000;
+
+    /**
+     * Idle time after which a kept-alive connection is closed, in milliseconds
+     */
+    private long maxIdleTime = 30000;
+
+    /**
+     * Maximum lifetime of a pooled connection, in milliseconds
+     */
+    private long maxLifeTime = 300000;
+
+    /**
+     * The admin token is refreshed once it has less than this many seconds left
+     */
+    private int tokenMinValidity = 60;
+
+    /**
+     * How often the admin token is checked for proactive refresh, in milliseconds
+     */
+    private long tokenRefreshInterval = 20000;
+
+    /**
+     * Consecutive failures that open the circuit
+     */
+    private int failureThreshold = 5;
+
+    /**
+     * Calls slower than this count as failures, in milliseconds
+     */
+    private long slowCallThreshold = 5000;
+
+    /**
+     * How long the circuit stays open before a trial call is allowed, in milliseconds
+     */
+    private long openDuration = 30000;
+
+    /**
+     * Oldest stored per-user result that may be served while Keycloak is unavailable, in milliseconds
+     */
+    private long fallbackMaxStaleness = 900000;
+}
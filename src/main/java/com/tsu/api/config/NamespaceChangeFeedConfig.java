@@ -0,0 +1,34 @@
+package com.tsu.api.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Configuration properties for the namespace change feed (Server-Sent Events)
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "namespace.changes")
+public class NamespaceChangeFeedConfig {
+
+    /**
+     * Interval between heartbeat comments on idle streams, in seconds
+     */
+    private long heartbeatInterval = 15;
+
+    /**
+     * Number of recent events retained for resuming from Last-Event-ID
+     */
+    private int replaySize = 1000;
+
+    /**
+     * Events buffered per subscriber before it is treated as a slow consumer and evicted
+     */
+    private int subscriberBuffer = 256;
+
+    /**
+     * Maximum concurrent subscribers per instance
+     */
+    private int maxSubscribers = 2000;
+}
@@ -0,0 +1,24 @@
+package com.tsu.api.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Configuration properties for the in-memory namespace search index
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "namespace.search")
+public class NamespaceSearchConfig {
+
+    /**
+     * Query listing the ids of all namespaces; each id is then loaded through the namespace service
+     */
+    private String idQuery = "SELECT id FROM namespace";
+
+    /**
+     * Namespaces loaded per read transaction while rebuilding the index
+     */
+    private int rebuildBatchSize = 500;
+}
@@ -0,0 +1,74 @@
+package com.tsu.api.config;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import com.tsu.api.http.res.AvailabilityCheckResponse;
+import com.tsu.api.http.res.NamespaceDetailResponse;
+import com.tsu.api.http.res.NamespaceResponse;
+import com.tsu.common.data.ApiResponseWrapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Binary response encodings (CBOR, Smile) next to JSON and faster Jackson serialization.
+ * <p>
+ * The binary mappers are built from Boot's configured builder, so they share modules and
+ * settings with the JSON mapper. Blackbird replaces reflective getter calls with generated
+ * lambdas. The binary mappers resolve the serializers of the list and detail responses at
+ * startup; the JSON mapper is covered by the serialization step of the warm-up.
+ */
+@Slf4j
+@Configuration
+public class ResponseEncodingConfig implements WebMvcConfigurer {
+
+    public static final TypeReference<ApiResponseWrapper<List<NamespaceResponse>>> NAMESPACE_LIST =
+            new TypeReference<>() {
+            };
+    public static final TypeReference<ApiResponseWrapper<NamespaceDetailResponse>> NAMESPACE_DETAIL =
+            new TypeReference<>() {
+            };
+    public static final TypeReference<ApiResponseWrapper<AvailabilityCheckResponse>> AVAILABILITY =
+            new TypeReference<>() {
+            };
+
+    private final ObjectMapper cborMapper;
+    private final ObjectMapper smileMapper;
+
+    public ResponseEncodingConfig(ObjectProvider<Jackson2ObjectMapperBuilder> builder) {
+        this.cborMapper = builder.getObject().factory(new CBORFactory()).build();
+        this.smileMapper = builder.getObject().factory(new SmileFactory()).build();
+        for (ObjectMapper mapper : List.of(cborMapper, smileMapper)) {
+            // writerFor prefetches the root serializer into the mapper's shared serializer cache
+            Stream.of(NAMESPACE_LIST, NAMESPACE_DETAIL, AVAILABILITY).forEach(mapper::writerFor);
+        }
+    }
+
+    // static so that Boot's builder can pick up the module while this configuration is still being created
+    @Bean
+    public static BlackbirdModule blackbirdModule() {
+        return new BlackbirdModule();
+    }
+
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        // Spring registers default binary converters when the formats are on the classpath;
+        // swap them for ones whose mappers carry the application's Jackson settings
+        converters.removeIf(converter -> converter instanceof MappingJackson2CborHttpMessageConverter
+                || converter instanceof MappingJackson2SmileHttpMessageConverter);
+        converters.add(new MappingJackson2CborHttpMessageConverter(cborMapper));
+        converters.add(new MappingJackson2SmileHttpMessageConverter(smileMapper));
+    }
+}
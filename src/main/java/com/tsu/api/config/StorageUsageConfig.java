@@ -0,0 +1,39 @@
+package com.tsu.api.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Configuration properties for per-bucket storage usage accounting
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "storage.usage")
+public class StorageUsageConfig {
+
+    /**
+     * How often accumulated usage deltas are written to the database, in milliseconds
+     */
+    private long flushInterval = 10000;
+
+    /**
+     * How often all totals are re-read to pick up writes made through other instances, in milliseconds
+     */
+    private long refreshInterval = 300000;
+
+    /**
+     * How often tracked buckets are reconciled against a full listing, in milliseconds
+     */
+    private long reconcileInterval = 21600000;
+
+    /**
+     * How soon buckets with deletes of unknown size are reconciled, in milliseconds
+     */
+    private long inexactReconcileInterval = 300000;
+
+    /**
+     * Default storage quota per namespace bucket in bytes, 0 for unlimited
+     */
+    private long defaultQuotaBytes = 0;
+}
@@ -0,0 +1,80 @@
+package com.tsu.api.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Configuration properties for the teardown of expired namespaces
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "teardown")
+public class TeardownConfig {
+
+    /**
+     * Teardown deletes data irreversibly, so it has to be switched on explicitly
+     */
+    private boolean enabled = false;
+
+    /**
+     * Delay between teardown runs, in milliseconds
+     */
+    private long interval = 3600000;
+
+    /**
+     * Delay before the first run after startup, in milliseconds
+     */
+    private long initialDelay = 300000;
+
+    /**
+     * Expired namespaces to queue for teardown, returning id, uri and bucket name. The parameter
+     * is the maximum number of rows queued per run.
+     */
+    private String expiredQuery = "SELECT id, uri, bucket FROM namespace n WHERE expiration_date < current_date AND NOT EXISTS (SELECT 1 FROM namespace_teardown t WHERE t.namespace_id = n.id) LIMIT ?";
+
+    /**
+     * Expired namespaces queued per run
+     */
+    private int enqueueLimit = 1000;
+
+    /**
+     * Counts the namespace when it exists and is no longer expired, e.g. because it was extended
+     * after being queued; its teardown is then dropped. The parameter is the namespace id.
+     */
+    private String renewedQuery = "SELECT count(*) FROM namespace WHERE id = ? AND (expiration_date IS NULL OR expiration_date >= current_date)";
+
+    /**
+     * Objects listed per drain round; progress is checkpointed after every round
+     */
+    private int listSize = 1000;
+
+    /**
+     * Objects per batch delete request (GCS allows at most 100 calls per batch)
+     */
+    private int deleteBatchSize = 100;
+
+    /**
+     * Batch delete requests in flight at once
+     */
+    private int parallelism = 4;
+
+    /**
+     * Rows deleted per purge transaction
+     */
+    private int purgeChunkSize = 500;
+
+    /**
+     * How long an instance owns a teardown before another one may resume it, in seconds
+     */
+    private long leaseDuration = 600;
+
+    /**
+     * Chunked purge statements, run in order until each deletes no more rows. Parameters are
+     * the namespace id and the chunk size.
+     */
+    private List<String> purgeStatements = new ArrayList<>();
+}
@@ -0,0 +1,31 @@
+package com.tsu.api.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Configuration properties for the warm-up phase that gates readiness
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "warmup")
+public class WarmupConfig {
+
+    private boolean enabled = true;
+
+    /**
+     * Maximum time spent warming up, in milliseconds; readiness flips when it runs out
+     */
+    private long timeBudget = 60000;
+
+    /**
+     * Repetitions of the synthetic read and serialization calls, enough for the JIT to compile them
+     */
+    private int iterations = 200;
+
+    /**
+     * Connections opened concurrently to pre-fill the pool, usually spring.datasource.hikari.minimum-idle
+     */
+    private int poolPrefill = 5;
+}
@@ -1,9 +1,14 @@
 package com.tsu.api.controller;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.tsu.api.http.res.AvailabilityCheckResponse;
+import com.tsu.api.http.res.NamespaceChangeEvent;
 import com.tsu.api.http.req.CreateNamespaceRequest;
 import com.tsu.api.dto.UpdateNamespaceRequest;
+import com.tsu.api.http.ApiMediaTypes;
 import com.tsu.api.service.NamespaceService;
+import com.tsu.api.service.patch.InvalidMergePatchException;
+import com.tsu.api.service.patch.JsonMergePatch;
 import com.tsu.common.data.ApiResponseWrapper;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -15,10 +20,13 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
 
 import java.util.List;
 
@@ -36,7 +44,8 @@ public class NamespaceController {
             @ApiResponse(responseCode = "200", description = "Successfully retrieved namespaces"),
             @ApiResponse(responseCode = "403", description = "Access denied")
     })
-    @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+    @GetMapping(produces = {MediaType.APPLICATION_JSON_VALUE,
+            MediaType.APPLICATION_CBOR_VALUE, ApiMediaTypes.APPLICATION_SMILE_VALUE})
     public ResponseEntity<ApiResponseWrapper<List<NamespaceResponse>>> getAllNamespaces(
             @PageableDefault(size = 20) Pageable pageable) {
         log.info("Getting current user's accessible namespaces with pagination: {}", pageable);
@@ -45,13 +54,51 @@ public class NamespaceController {
     }
 
 
+    @Operation(summary = "Stream namespace changes", description = "Server-Sent Events feed of changes to the current user's namespaces")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Change stream opened"),
+            @ApiResponse(responseCode = "403", description = "Access denied"),
+            @ApiResponse(responseCode = "503", description = "Subscriber limit reached on this instance")
+    })
+    @GetMapping(value = "/changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<Flux<ServerSentEvent<NamespaceChangeEvent>>> streamChanges(
+            @Parameter(description = "Resume after this event id") @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        log.info("Opening namespace change stream, resuming after: {}", lastEventId);
+        try {
+            return ResponseEntity.ok(namespaceService.subscribeChanges(lastEventId));
+        } catch (IllegalStateException e) {
+            log.warn("Rejecting namespace change stream: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "5")
+                    .body(Flux.empty());
+        }
+    }
+
+
+    @Operation(summary = "Search open namespaces", description = "Typeahead search over name, URI and description of open namespaces")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Search completed"),
+            @ApiResponse(responseCode = "403", description = "Access denied")
+    })
+    @GetMapping(value = "/search", produces = {MediaType.APPLICATION_JSON_VALUE,
+            MediaType.APPLICATION_CBOR_VALUE, ApiMediaTypes.APPLICATION_SMILE_VALUE})
+    public ResponseEntity<ApiResponseWrapper<List<NamespaceResponse>>> searchNamespaces(
+            @Parameter(description = "Partial name, URI or description") @RequestParam("q") String query,
+            @Parameter(description = "Maximum results (1-50)") @RequestParam(defaultValue = "10") int limit) {
+        log.debug("Searching namespaces: {}", query);
+        List<NamespaceResponse> namespaces = namespaceService.searchNamespaces(query, limit);
+        return ResponseEntity.ok(ApiResponseWrapper.success(namespaces, "Namespaces retrieved successfully"));
+    }
+
+
     @Operation(summary = "Get namespace by ID", description = "Retrieve a specific namespace by its ID")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Successfully retrieved namespace"),
             @ApiResponse(responseCode = "404", description = "Namespace not found"),
             @ApiResponse(responseCode = "403", description = "Access denied")
     })
-    @GetMapping(value = "/{uri}", produces = MediaType.APPLICATION_JSON_VALUE)
+    @GetMapping(value = "/{uri}", produces = {MediaType.APPLICATION_JSON_VALUE,
+            MediaType.APPLICATION_CBOR_VALUE, ApiMediaTypes.APPLICATION_SMILE_VALUE})
     public ResponseEntity<ApiResponseWrapper<NamespaceDetailDto>> getNamespaceByPath(
             @Parameter(description = "Namespace Uri") @PathVariable String uri) {
         log.info("Getting namespace by uri: {}", uri);
@@ -73,7 +120,8 @@ public class NamespaceController {
             @ApiResponse(responseCode = "200", description = "URI availability check completed"),
             @ApiResponse(responseCode = "403", description = "Access denied")
     })
-    @GetMapping(value = "/check-uri/{uri}", produces = MediaType.APPLICATION_JSON_VALUE)
+    @GetMapping(value = "/check-uri/{uri}", produces = {MediaType.APPLICATION_JSON_VALUE,
+            MediaType.APPLICATION_CBOR_VALUE, ApiMediaTypes.APPLICATION_SMILE_VALUE})
     public ResponseEntity<ApiResponseWrapper<AvailabilityCheckResponse>> checkUri(
             @Parameter(description = "Namespace URI to check") @PathVariable String uri) {
         log.info("Checking URI availability: {}", uri);
@@ -89,7 +137,8 @@ public class NamespaceController {
             @ApiResponse(responseCode = "404", description = "Namespace not found"),
             @ApiResponse(responseCode = "403", description = "Access denied")
     })
-    @GetMapping(value = "/uri/{uri}", produces = MediaType.APPLICATION_JSON_VALUE)
+    @GetMapping(value = "/uri/{uri}", produces = {MediaType.APPLICATION_JSON_VALUE,
+            MediaType.APPLICATION_CBOR_VALUE, ApiMediaTypes.APPLICATION_SMILE_VALUE})
     public ResponseEntity<ApiResponseWrapper<NamespaceDetailDto>> getNamespaceByUri(
             @Parameter(description = "Namespace URI") @PathVariable String uri) {
         log.info("Getting namespace by URI: {}", uri);
@@ -194,4 +243,37 @@ public class NamespaceController {
                     .body(ApiResponseWrapper.error("Conflict", e.getMessage()));
         }
     }
+
+    @Operation(summary = "Merge patch namespace", description = "Apply a JSON Merge Patch (RFC 7396) to name and props of a namespace")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Namespace updated successfully"),
+            @ApiResponse(responseCode = "400", description = "Invalid merge patch"),
+            @ApiResponse(responseCode = "404", description = "Namespace not found"),
+            @ApiResponse(responseCode = "409", description = "Conflict with existing data"),
+            @ApiResponse(responseCode = "403", description = "Access denied")
+    })
+    @PatchMapping(value = "/{id}", consumes = JsonMergePatch.MEDIA_TYPE, produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<ApiResponseWrapper<NamespaceDetailDto>> mergePatchNamespace(
+            @Parameter(description = "Namespace ID") @PathVariable String id,
+            @Parameter(description = "Merge patch document") @RequestBody JsonNode patch) {
+        log.info("Merge patching namespace: {}", id);
+
+        try {
+            return namespaceService.patchNamespace(id, patch)
+                    .map(namespace -> ResponseEntity.ok(ApiResponseWrapper.success(namespace, "Namespace updated successfully")))
+                    .orElseGet(() -> {
+                        log.warn("Namespace not found for merge patch: {}", id);
+                        return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                                .body(ApiResponseWrapper.error("Namespace not found", "Namespace with ID " + id + " does not exist"));
+                    });
+        } catch (InvalidMergePatchException e) {
+            log.warn("Rejected merge patch for namespace {}: {}", id, e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(ApiResponseWrapper.error("Invalid merge patch", e.getMessage()));
+        } catch (IllegalArgumentException e) {
+            log.warn("Failed to merge patch namespace {}: {}", id, e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(ApiResponseWrapper.error("Conflict", e.getMessage()));
+        }
+    }
 }
@@ -1,5 +1,13 @@
 package com.tsu.api.controller;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.introspect.BeanPropertyDefinition;
+import com.tsu.api.service.cache.CacheInvalidationBus;
+import com.tsu.api.service.cache.CacheRegion;
+import com.tsu.api.service.keycloak.KeycloakFallback;
+import com.tsu.api.service.patch.JsonMergePatch;
 import com.tsu.auth.security.AppSecurityContextInitializer;
 import com.tsu.common.data.ApiResponseWrapper;
 import com.tsu.common.exception.UserException;
@@ -9,12 +17,18 @@ import com.tsu.namespace.api.UserProfile;
 import com.tsu.namespace.dto.LoginUserInfoDto;
 import com.tsu.namespace.request.UpdateUserProfileRequest;
 import com.tsu.namespace.service.UserService;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.ConstraintViolationException;
 import jakarta.validation.Valid;
+import jakarta.validation.Validator;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.Set;
+import java.util.stream.Collectors;
+
 import static com.tsu.enums.BaseExceptionCode.INACTIVE_ACCOUNT;
 
 @Slf4j
@@ -25,27 +39,103 @@ public class UserProfileController {
 
     private final UserService userService;
     private final AppSecurityContextInitializer initializer;
+    private final CacheInvalidationBus invalidationBus;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final KeycloakFallback keycloakFallback;
 
     @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
     public ApiResponseWrapper<LoginUserInfoDto> get() {
-        LoginUserInfoDto response = userService.getContextUserInfo();
-        return ApiResponseWrapper.success(response, "Profile retrieved successfully");
+        // user sync may call Keycloak; serve the last known info while it is unavailable
+        LoginUserInfoDto response = keycloakFallback.callForCurrentUser("info", userService::getContextUserInfo);
+        return ApiResponseWrapper.success(response, KeycloakFallback.isServedStale()
+                ? "Profile served from last known state, Keycloak is unavailable"
+                : "Profile retrieved successfully");
     }
 
 
     @GetMapping(value = "/full", produces = MediaType.APPLICATION_JSON_VALUE)
     public ApiResponseWrapper<UserProfile> getSettings() {
-        UserBase userBase = initializer.initializeAndVerify().getUser().orElseThrow(() -> new UserException(INACTIVE_ACCOUNT));
-        return ApiResponseWrapper.success(userBase.toProfile(), "Settings retrieved successfully");
+        UserProfile profile = keycloakFallback.callForCurrentUser("profile", () -> initializer.initializeAndVerify().getUser()
+                .orElseThrow(() -> new UserException(INACTIVE_ACCOUNT))
+                .toProfile());
+        return ApiResponseWrapper.success(profile, KeycloakFallback.isServedStale()
+                ? "Settings served from last known state, Keycloak is unavailable"
+                : "Settings retrieved successfully");
     }
 
 
     @PutMapping(value = "/full", consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
     public ApiResponseWrapper<UserProfile> updateFullProfile(@Valid @RequestBody UpdateUserProfileRequest req) {
-        UpdateUser update = new UpdateUser(req.getDisplayName(), req.getFirstName(), req.getLastName(), req.getImageURL(),
+        UserProfile response = userService.updateContextUser(toUpdateUser(req));
+        initializer.initializeAndVerify().getUser()
+                .ifPresent(user -> invalidationBus.publish(CacheRegion.user, user.getValue().id().toString()));
+        keycloakFallback.rememberForCurrentUser("profile", response);
+        keycloakFallback.forgetForCurrentUser("info");
+        return ApiResponseWrapper.success(response, "Full profile updated successfully");
+    }
+
+    /**
+     * Apply a JSON Merge Patch (RFC 7396) to the profile. Preferences merge member by member, so
+     * autosaving a single toggle does not resend the rest; a patch that changes nothing is not written.
+     * Members that {@link UpdateUserProfileRequest} does not accept are rejected with 400. The merge
+     * base is copied field by field from the current profile, so every field the patch leaves out
+     * is written back unchanged.
+     */
+    @PatchMapping(value = "/full", consumes = JsonMergePatch.MEDIA_TYPE, produces = MediaType.APPLICATION_JSON_VALUE)
+    public ApiResponseWrapper<UserProfile> patchFullProfile(@RequestBody JsonNode patch) throws JsonProcessingException {
+        UserBase userBase = initializer.initializeAndVerify().getUser().orElseThrow(() -> new UserException(INACTIVE_ACCOUNT));
+        UserProfile current = userBase.toProfile();
+        JsonMergePatch.requireMembers(patch, patchableMembers());
+        JsonNode currentTree = objectMapper.valueToTree(toUpdateRequest(current));
+        JsonNode merged = JsonMergePatch.apply(currentTree, patch);
+        if (currentTree.equals(merged)) {
+            log.debug("Profile merge patch changed nothing, skipping write");
+            return ApiResponseWrapper.success(current, "Full profile unchanged");
+        }
+        UpdateUserProfileRequest req = objectMapper.treeToValue(merged, UpdateUserProfileRequest.class);
+        Set<ConstraintViolation<UpdateUserProfileRequest>> violations = validator.validate(req);
+        if (!violations.isEmpty()) {
+            throw new ConstraintViolationException(violations);
+        }
+        UserProfile response = userService.updateContextUser(toUpdateUser(req));
+        invalidationBus.publish(CacheRegion.user, userBase.getValue().id().toString());
+        keycloakFallback.rememberForCurrentUser("profile", response);
+        keycloakFallback.forgetForCurrentUser("info");
+        return ApiResponseWrapper.success(response, "Full profile updated successfully");
+    }
+
+    /**
+     * Every field of the request, taken from the profile by name rather than by JSON shape, whose
+     * property names differ (e.g. {@code imageURL}).
+     */
+    static UpdateUserProfileRequest toUpdateRequest(UserProfile profile) {
+        UpdateUserProfileRequest req = new UpdateUserProfileRequest();
+        req.setDisplayName(profile.getDisplayName());
+        req.setFirstName(profile.getFirstName());
+        req.setLastName(profile.getLastName());
+        req.setImageURL(profile.getImageURL());
+        req.setPhone(profile.getPhone());
+        req.setTimezoneId(profile.getTimezoneId());
+        req.setLanguageTag(profile.getLanguageTag());
+        req.setDatePattern(profile.getDatePattern());
+        req.setDatetimePattern(profile.getDatetimePattern());
+        req.setPreferences(profile.getPreferences());
+        return req;
+    }
+
+    static UpdateUser toUpdateUser(UpdateUserProfileRequest req) {
+        return new UpdateUser(req.getDisplayName(), req.getFirstName(), req.getLastName(), req.getImageURL(),
                 req.getPhone(), req.getTimezoneId(), req.getLanguageTag(),
                 req.getDatePattern(), req.getDatetimePattern(), req.getPreferences());
-        UserProfile response = userService.updateContextUser(update);
-        return ApiResponseWrapper.success(response, "Full profile updated successfully");
+    }
+
+    private Set<String> patchableMembers() {
+        return objectMapper.getDeserializationConfig()
+                .introspect(objectMapper.constructType(UpdateUserProfileRequest.class))
+                .findProperties().stream()
+                .filter(BeanPropertyDefinition::couldDeserialize)
+                .map(BeanPropertyDefinition::getName)
+                .collect(Collectors.toSet());
     }
 }
@@ -0,0 +1,16 @@
+package com.tsu.api.http;
+
+import org.springframework.http.MediaType;
+
+/**
+ * Media types served by the high-volume read endpoints. JSON stays the default; clients that
+ * send a matching Accept header get the same payload in a compact binary encoding.
+ */
+public final class ApiMediaTypes {
+
+    public static final String APPLICATION_SMILE_VALUE = "application/x-jackson-smile";
+    public static final MediaType APPLICATION_SMILE = MediaType.parseMediaType(APPLICATION_SMILE_VALUE);
+
+    private ApiMediaTypes() {
+    }
+}
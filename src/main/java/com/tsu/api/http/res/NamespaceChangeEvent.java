@@ -0,0 +1,28 @@
+package com.tsu.api.http.res;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Builder;
+import lombok.Getter;
+
+import java.util.Map;
+
+@Getter
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class NamespaceChangeEvent {
+
+    public static final String CREATED = "c";
+    public static final String UPDATED = "u";
+    // expired and torn down
+    public static final String DELETED = "d";
+    // changed on another instance, diff unknown: client should refetch
+    public static final String STALE = "s";
+    // resume point no longer available: client should reload everything
+    public static final String RESET = "r";
+
+    private String typ; //type
+    private String nsId; //namespace id
+    private String uri;
+    private Map<String, Object> chg; //changed fields
+
+}
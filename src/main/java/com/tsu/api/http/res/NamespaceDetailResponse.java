@@ -29,6 +29,7 @@ public class NamespaceDetailResponse {
 
     private String category;
     private Integer memberCount;
+    private ResourceQuotaResponse resourceQuotas;
 
 
 }
\ No newline at end of file
@@ -0,0 +1,16 @@
+package com.tsu.api.http.res;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Builder;
+import lombok.Getter;
+
+@Getter
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ResourceQuotaResponse {
+
+    private long storageBytes;
+    private long objectCount;
+    private Long storageLimitBytes;
+
+}
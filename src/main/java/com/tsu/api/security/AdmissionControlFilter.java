@@ -0,0 +1,210 @@
+package com.tsu.api.security;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tsu.api.config.AdmissionControlConfig;
+import com.tsu.api.service.NamespaceTierResolver;
+import com.tsu.auth.api.AccessLevel;
+import com.tsu.common.data.ApiResponseWrapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Rejects requests with 429 before they reach the connection pool when a caller exceeds its
+ * token bucket or an endpoint class runs out of concurrency.
+ * <p>
+ * Every request first passes a caller-wide bucket per endpoint class, sized to the most generous
+ * configured limit, and then a bucket keyed by caller, namespace and endpoint class whose size
+ * comes from the tier of the target namespace (its {@link AccessLevel}) or the default limit.
+ * Anonymous callers are keyed by client address; actuator endpoints are not limited. Bulkheads are
+ * shared by all callers of an endpoint class so slow queries cannot occupy the whole pool.
+ * <p>
+ * Idle buckets are swept at most once per sweep interval, and the number of buckets is capped:
+ * past the cap, callers without a bucket share an overflow bucket per endpoint class.
+ */
+@Slf4j
+public class AdmissionControlFilter extends OncePerRequestFilter {
+
+    private static final Pattern NAMESPACE_ID = Pattern.compile(
+            "^/namespaces/([0-9a-fA-F]{8}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{12})(/.*)?$");
+    private static final String NO_NAMESPACE = "-";
+    private static final String OVERFLOW = "overflow|*|";
+
+    private final AdmissionControlConfig config;
+    private final NamespaceTierResolver tierResolver;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+    private final Map<EndpointClass, Semaphore> bulkheads = new EnumMap<>(EndpointClass.class);
+    private final AdmissionControlConfig.Limit ceiling;
+    private final AtomicLong lastSweep = new AtomicLong(System.nanoTime());
+
+    public AdmissionControlFilter(AdmissionControlConfig config,
+                                  NamespaceTierResolver tierResolver,
+                                  ObjectMapper objectMapper,
+                                  MeterRegistry meterRegistry) {
+        this.config = config;
+        this.tierResolver = tierResolver;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        for (EndpointClass endpointClass : EndpointClass.values()) {
+            int permits = config.getBulkheads().getOrDefault(endpointClass.getKey(), Integer.MAX_VALUE);
+            Semaphore semaphore = new Semaphore(permits);
+            bulkheads.put(endpointClass, semaphore);
+            Gauge.builder("admission.bulkhead.limit", () -> permits)
+                    .tag("class", endpointClass.getKey())
+                    .register(meterRegistry);
+            Gauge.builder("admission.bulkhead.in_flight", semaphore, s -> permits - s.availablePermits())
+                    .tag("class", endpointClass.getKey())
+                    .register(meterRegistry);
+        }
+        registerLimitGauges("default", config.getDefaultLimit());
+        config.getTiers().forEach(this::registerLimitGauges);
+        Gauge.builder("admission.buckets", buckets, Map::size).register(meterRegistry);
+        // the caller-wide bucket never tightens a tier limit, it only bounds tier lookups
+        this.ceiling = new AdmissionControlConfig.Limit();
+        ceiling.setRate(config.getTiers().values().stream()
+                .mapToDouble(AdmissionControlConfig.Limit::getRate)
+                .reduce(config.getDefaultLimit().getRate(), Math::max));
+        ceiling.setBurst(config.getTiers().values().stream()
+                .mapToInt(AdmissionControlConfig.Limit::getBurst)
+                .reduce(config.getDefaultLimit().getBurst(), Math::max));
+    }
+
+    private void registerLimitGauges(String tier, AdmissionControlConfig.Limit limit) {
+        Gauge.builder("admission.rate.limit", limit, AdmissionControlConfig.Limit::getRate)
+                .tag("tier", tier)
+                .register(meterRegistry);
+        Gauge.builder("admission.rate.burst", limit, AdmissionControlConfig.Limit::getBurst)
+                .tag("tier", tier)
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        if (!config.isEnabled() || "OPTIONS".equals(request.getMethod())) {
+            return true;
+        }
+        // probes and metrics scrapes must never compete with client traffic
+        return request.getRequestURI().substring(request.getContextPath().length()).startsWith("/actuator/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        EndpointClass endpointClass = EndpointClass.of(request, path);
+        String caller = caller(request);
+        long now = System.nanoTime();
+
+        // the caller-wide bucket is checked first, so resolving the tier below costs at most one
+        // lookup per admitted request and a flood of unknown ids is throttled before the database
+        long waitNanos = acquire(caller + "|*|", endpointClass, ceiling, now);
+        String tier = "default";
+        if (waitNanos <= 0) {
+            Matcher matcher = NAMESPACE_ID.matcher(path);
+            if (matcher.matches()) {
+                String namespaceId = matcher.group(1);
+                tier = tierResolver.resolve(namespaceId).map(AccessLevel::name).orElse("default");
+                AdmissionControlConfig.Limit limit = config.getTiers().getOrDefault(tier, config.getDefaultLimit());
+                waitNanos = acquire(caller + "|" + namespaceId + "|", endpointClass, limit, now);
+            } else {
+                waitNanos = acquire(caller + "|" + NO_NAMESPACE + "|", endpointClass, config.getDefaultLimit(), now);
+            }
+        }
+        if (waitNanos > 0) {
+            reject(response, endpointClass, "rate", tier, TimeUnit.NANOSECONDS.toSeconds(waitNanos) + 1);
+            return;
+        }
+        sweep(now);
+
+        Semaphore bulkhead = bulkheads.get(endpointClass);
+        if (!bulkhead.tryAcquire()) {
+            reject(response, endpointClass, "concurrency", tier, 1);
+            return;
+        }
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            bulkhead.release();
+        }
+    }
+
+    private long acquire(String prefix, EndpointClass endpointClass, AdmissionControlConfig.Limit limit, long now) {
+        String key = prefix + endpointClass.getKey();
+        TokenBucket bucket = buckets.get(key);
+        if (bucket == null && buckets.size() >= config.getHardMaxBuckets()) {
+            meterRegistry.counter("admission.buckets.overflow", "class", endpointClass.getKey()).increment();
+            key = OVERFLOW + endpointClass.getKey();
+        }
+        if (bucket == null) {
+            bucket = buckets.computeIfAbsent(key, k -> new TokenBucket(limit.getRate(), limit.getBurst()));
+        }
+        return bucket.tryAcquire(now);
+    }
+
+    /**
+     * Drop idle buckets once there are more than the configured maximum, at most once per sweep
+     * interval, so a map full of active buckets is not rescanned on every request.
+     */
+    private void sweep(long now) {
+        long last = lastSweep.get();
+        if (buckets.size() > config.getMaxBuckets()
+                && now - last >= TimeUnit.MILLISECONDS.toNanos(config.getSweepInterval())
+                && lastSweep.compareAndSet(last, now)) {
+            buckets.values().removeIf(bucket -> bucket.isIdle(now));
+        }
+    }
+
+    /**
+     * Authenticated callers are keyed by principal, anonymous ones by client address so that
+     * login and registration traffic from different users does not share one bucket. The address
+     * is the one Tomcat resolved from trusted proxy hops, never a header value the client chose.
+     */
+    private String caller(HttpServletRequest request) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.isAuthenticated()
+                && !(authentication instanceof AnonymousAuthenticationToken)) {
+            return authentication.getName();
+        }
+        return "anonymous@" + request.getRemoteAddr();
+    }
+
+    private void reject(HttpServletResponse response, EndpointClass endpointClass, String reason, String tier,
+                        long retryAfterSeconds) throws IOException {
+        Counter.builder("admission.rejected")
+                .tag("class", endpointClass.getKey())
+                .tag("reason", reason)
+                .tag("tier", tier)
+                .register(meterRegistry)
+                .increment();
+        log.debug("Rejected {} request ({} limit, tier {})", endpointClass.getKey(), reason, tier);
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(),
+                ApiResponseWrapper.error("Too many requests", "Request limit exceeded, retry after " + retryAfterSeconds + "s"));
+    }
+}
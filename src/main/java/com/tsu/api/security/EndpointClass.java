@@ -0,0 +1,36 @@
+package com.tsu.api.security;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+/**
+ * Groups endpoints by the database cost they impose, for bulkheads and rate limits.
+ */
+public enum EndpointClass {
+    uriCheck("uri-check"),
+    memberQuery("member-query"),
+    write("write"),
+    read("read");
+
+    private final String key;
+
+    EndpointClass(String key) {
+        this.key = key;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    /**
+     * @param path request path relative to the servlet context
+     */
+    public static EndpointClass of(HttpServletRequest request, String path) {
+        if (path.startsWith("/namespaces/check-uri/")) {
+            return uriCheck;
+        }
+        if (path.startsWith("/namespaces/") && path.contains("/users")) {
+            return memberQuery;
+        }
+        return "GET".equals(request.getMethod()) ? read : write;
+    }
+}
@@ -0,0 +1,44 @@
+package com.tsu.api.security;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token bucket using the generic cell rate algorithm: the whole state is a single
+ * "theoretical arrival time", advanced with CAS on every admitted request.
+ */
+public class TokenBucket {
+
+    private final long emissionIntervalNanos;
+    private final long toleranceNanos;
+    private final AtomicLong theoreticalArrival = new AtomicLong(Long.MIN_VALUE);
+
+    public TokenBucket(double ratePerSecond, int burst) {
+        this.emissionIntervalNanos = (long) (1_000_000_000L / ratePerSecond);
+        this.toleranceNanos = emissionIntervalNanos * Math.max(burst, 0);
+    }
+
+    /**
+     * @return 0 when admitted, otherwise nanoseconds until a token becomes available
+     */
+    public long tryAcquire(long nowNanos) {
+        while (true) {
+            long tat = theoreticalArrival.get();
+            long base = tat == Long.MIN_VALUE || tat < nowNanos ? nowNanos : tat;
+            long wait = base - toleranceNanos - nowNanos;
+            if (wait > 0) {
+                return wait;
+            }
+            if (theoreticalArrival.compareAndSet(tat, base + emissionIntervalNanos)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * A bucket is idle once it has refilled completely and can be recreated without changing behavior.
+     */
+    public boolean isIdle(long nowNanos) {
+        long tat = theoreticalArrival.get();
+        return tat == Long.MIN_VALUE || tat <= nowNanos;
+    }
+}
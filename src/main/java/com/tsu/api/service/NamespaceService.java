@@ -1,10 +1,21 @@
 package com.tsu.api.service;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.tsu.api.http.res.AvailabilityCheckResponse;
+import com.tsu.api.http.res.NamespaceChangeEvent;
 import com.tsu.api.http.req.CreateNamespaceRequest;
 import com.tsu.api.dto.UpdateNamespaceRequest;
 import com.tsu.api.http.res.NamespaceDetailResponse;
 import com.tsu.api.http.res.NamespaceResponse;
+import com.tsu.api.http.res.ResourceQuotaResponse;
+import com.tsu.api.service.cache.CacheInvalidationBus;
+import com.tsu.api.service.cache.CacheRegion;
+import com.tsu.api.service.event.NamespaceChangeFeed;
+import com.tsu.api.service.patch.InvalidMergePatchException;
+import com.tsu.api.service.patch.JsonMergePatch;
+import com.tsu.api.service.search.NamespaceSearchService;
+import com.tsu.api.service.storage.StorageUsage;
+import com.tsu.api.service.storage.StorageUsageTracker;
 import com.tsu.auth.api.AccessLevel;
 import com.tsu.auth.security.AppSecurityContext;
 import com.tsu.auth.security.AppSecurityContextInitializer;
@@ -15,6 +26,7 @@ import com.tsu.common.vo.Email;
 import com.tsu.common.vo.Text;
 import com.tsu.entry.api.AclMode;
 import com.tsu.entry.api.EntryBucket;
+import com.tsu.entry.api.FileStoreProvider;
 import com.tsu.enums.BaseParamName;
 import com.tsu.namespace.api.Namespace;
 import com.tsu.namespace.api.UserBase;
@@ -28,13 +40,16 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import reactor.core.publisher.Flux;
 
 import java.security.SecureRandom;
-import java.util.List;
-import java.util.Optional;
-import java.util.UUID;
+import java.util.*;
+import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
 @Slf4j
@@ -46,8 +61,15 @@ public class NamespaceService {
     private final AppSecurityContextInitializer securityContextInitializer;
     private final AppService appService;
     private final UserService userService;
+    private final CacheInvalidationBus invalidationBus;
+    private final NamespaceChangeFeed changeFeed;
+    private final NamespaceSearchService searchService;
+    private final FileStoreProvider bucketProvider;
+    private final StorageUsageTracker usageTracker;
     private final SecureRandom secureRandom = new SecureRandom();
 
+    private static final Set<String> PATCHABLE_MEMBERS = Set.of("name", "props");
+
     public List<NamespaceResponse> findAllNamespaces() {
         AppSecurityContext context = securityContextInitializer.initializeAndVerify();
         // Get namespaces from UserBase context instead of all namespaces
@@ -56,6 +78,36 @@ public class NamespaceService {
                 .toList();
     }
 
+    /**
+     * Stream changes to the namespaces the current user has joined. The joined set is captured
+     * when the stream opens and grows with the namespaces the user creates afterwards.
+     */
+    @Transactional(readOnly = true)
+    public Flux<ServerSentEvent<NamespaceChangeEvent>> subscribeChanges(String lastEventId) {
+        AppSecurityContext context = securityContextInitializer.initializeAndVerify();
+        Set<String> namespaceIds = appService.findJoinedNamespaces(context.getPrincipal())
+                .map(val -> val.id().toString())
+                .collect(Collectors.toSet());
+        return changeFeed.subscribe(currentPrincipalName(), namespaceIds, lastEventId);
+    }
+
+    /**
+     * Typeahead search over open namespaces, served from the in-memory index.
+     */
+    public List<NamespaceResponse> searchNamespaces(String query, int limit) {
+        securityContextInitializer.initializeAndVerify();
+        return searchService.search(query, Math.min(Math.max(limit, 1), 50)).stream()
+                .map(doc -> NamespaceResponse.builder()
+                        .id(doc.id())
+                        .name(doc.name())
+                        .displayName(doc.name())
+                        .description(doc.description())
+                        .visibility(mapAccessLevelToVisibility(AccessLevel.open))
+                        .accessLevel(AccessLevel.open.name())
+                        .contextPath(doc.uri())
+                        .build())
+                .toList();
+    }
 
     public Optional<NamespaceDetailDto> findNamespaceById(String id) {
         UUID namespaceId = ParamValidator.convertAndCheckUUID(id, BaseParamName.NAMESPACE);
@@ -114,6 +166,7 @@ public class NamespaceService {
 
         // Use context path as the bucket name for now (could be generated differently)
         EntryBucket bucket = bucketProvider.createBucket(request.getContextPath(), AclMode.FULL);
+        usageTracker.register(bucket.getName());
 
         // Build background image URL from image info if provided
         String backgroundImageUrl = null;
@@ -150,6 +203,21 @@ public class NamespaceService {
                 .accessLevel(AccessLevel.valueOf(request.getAccessLevel()))
                 .build();
         NamespaceContext context = appService.post(addNamespace, namespaceProps);
+        NamespaceVal created = context.getNamespace().getValue();
+        // the creator's open streams must know the namespace before its CREATED event goes out
+        NamespaceChangeFeed.memberKey(currentPrincipalName(), created.id().toString())
+                .ifPresent(key -> invalidationBus.publish(CacheRegion.member, key));
+        invalidationBus.publish(CacheRegion.namespace, created.id().toString());
+        invalidationBus.publish(CacheRegion.uri, created.uri());
+        Map<String, Object> fields = new LinkedHashMap<>();
+        fields.put("name", created.name());
+        fields.put("accessLevel", created.accessLevel().name().toLowerCase());
+        changeFeed.publish(NamespaceChangeEvent.builder()
+                .typ(NamespaceChangeEvent.CREATED)
+                .nsId(created.id().toString())
+                .uri(created.uri())
+                .chg(fields)
+                .build());
         return toNamespaceDetailResponse(context.getNamespace());
     }
 
@@ -164,23 +232,102 @@ public class NamespaceService {
                     boolean updated = false;
                     Namespace namespace = context.getNamespace();
                     NamespaceVal val = namespace.getValue();
+                    Map<String, Object> changes = new LinkedHashMap<>();
                     if (request.getName() != null && !request.getName().equals(val.name())) {
                         // Check if new name is already taken
                         if (appService.findNamespaceIdByName(Text.of(request.getName())).isPresent()) {
                             throw new IllegalArgumentException("Namespace with name '" + request.getName() + "' already exists");
                         }
                         namespace.setName(Text.of(request.getName()));
+                        changes.put("name", request.getName());
                     }
                     if (request.getProps() != null) {
                         namespace.setProps(request.getProps());
+                        changes.put("props", request.getProps());
                         updated = true;
                     }
                     if (updated) {
                         log.info("Updated namespace: {} ({})", namespace.getValue().name(), namespace.getValue().id());
                     }
+                    publishUpdate(val, changes);
                     return toNamespaceDetailResponse(namespace);
                 });
     }
+
+    /**
+     * Apply a JSON Merge Patch (RFC 7396) to a namespace. Only {@code name} and {@code props} are
+     * patchable, other members are rejected; props are merged member by member, so a client can
+     * change one setting without sending the rest, and {@code "props": null} removes them.
+     * Nothing is written and no change is published when the patch is a no-op.
+     */
+    @Transactional
+    public Optional<NamespaceDetailDto> patchNamespace(String id, JsonNode patch) {
+        UUID namespaceId = ParamValidator.convertAndCheckUUID(id, BaseParamName.NAMESPACE);
+        JsonMergePatch.requireMembers(patch, PATCHABLE_MEMBERS);
+        JsonNode name = patch.get("name");
+        if (name != null && !name.isTextual()) {
+            throw new InvalidMergePatchException("Namespace name cannot be removed and must be a string");
+        }
+        JsonNode propsPatch = patch.get("props");
+        if (propsPatch != null && !propsPatch.isObject() && !propsPatch.isNull()) {
+            throw new InvalidMergePatchException("Namespace props must be an object or null");
+        }
+        return appService.findNamespaceContextById(namespaceId)
+                .map(context -> {
+                    Namespace namespace = context.getNamespace();
+                    NamespaceVal val = namespace.getValue();
+                    Map<String, Object> changes = new LinkedHashMap<>();
+                    if (name != null && !name.asText().equals(val.name())) {
+                        if (appService.findNamespaceIdByName(Text.of(name.asText())).isPresent()) {
+                            throw new IllegalArgumentException("Namespace with name '" + name.asText() + "' already exists");
+                        }
+                        namespace.setName(Text.of(name.asText()));
+                        changes.put("name", name.asText());
+                    }
+                    if (propsPatch != null) {
+                        JsonNode current = namespace.getProps(JsonNode.class).orElse(null);
+                        if (propsPatch.isNull()) {
+                            // RFC 7396: null removes the member
+                            if (current != null) {
+                                namespace.setProps(null);
+                                changes.put("props", null);
+                            }
+                        } else {
+                            JsonNode merged = JsonMergePatch.apply(current, propsPatch);
+                            if (!Objects.equals(current, merged)) {
+                                namespace.setProps(merged);
+                                changes.put("props", propsPatch);
+                            }
+                        }
+                    }
+                    if (changes.isEmpty()) {
+                        log.debug("Merge patch on namespace {} changed nothing, skipping write", id);
+                    } else {
+                        log.info("Patched namespace {} fields {}", val.id(), changes.keySet());
+                        publishUpdate(val, changes);
+                    }
+                    return toNamespaceDetailResponse(namespace);
+                });
+    }
+
+    private static String currentPrincipalName() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication == null ? null : authentication.getName();
+    }
+
+    private void publishUpdate(NamespaceVal val, Map<String, Object> changes) {
+        invalidationBus.publish(CacheRegion.namespace, val.id().toString());
+        invalidationBus.publish(CacheRegion.uri, val.uri());
+        if (!changes.isEmpty()) {
+            changeFeed.publish(NamespaceChangeEvent.builder()
+                    .typ(NamespaceChangeEvent.UPDATED)
+                    .nsId(val.id().toString())
+                    .uri(val.uri())
+                    .chg(changes)
+                    .build());
+        }
+    }
+
     private NamespaceResponse toNamespaceResponse(NamespaceVal val){
         String status = val.active() ? "active" : "inactive";
         log.debug("Converting namespace to response: {}", val);
@@ -224,6 +371,12 @@ public class NamespaceService {
         // Map access level to visibility
         String visibility = mapAccessLevelToVisibility(val.accessLevel());
 
+        StorageUsage usage = usageTracker.getUsage(val.bucket());
+        ResourceQuotaResponse resourceQuotas = ResourceQuotaResponse.builder()
+                .storageBytes(usage.bytes())
+                .objectCount(usage.objects())
+                .storageLimitBytes(usageTracker.getQuotaBytes())
+                .build();
 
         ImageInfo image = new ImageInfo();
         image.setUrl(val.backgroundImageUrl());
@@ -0,0 +1,75 @@
+package com.tsu.api.service;
+
+import com.tsu.api.service.cache.CacheInvalidationListener;
+import com.tsu.api.service.cache.CacheRegion;
+import com.tsu.auth.api.AccessLevel;
+import com.tsu.namespace.service.AppService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+
+/**
+ * Resolves the access level of a namespace for admission control without a database round trip
+ * on every request. Only namespaces that exist are cached, least recently used first out, and
+ * entries are dropped through the invalidation bus when a namespace changes.
+ */
+@Slf4j
+@Component
+public class NamespaceTierResolver implements CacheInvalidationListener {
+
+    private static final int MAX_ENTRIES = 10000;
+
+    private final AppService appService;
+    private final TransactionTemplate readTransaction;
+    private final Map<String, AccessLevel> accessLevels = Collections.synchronizedMap(
+            new LinkedHashMap<>(256, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, AccessLevel> eldest) {
+                    return size() > MAX_ENTRIES;
+                }
+            });
+
+    public NamespaceTierResolver(AppService appService, PlatformTransactionManager transactionManager) {
+        this.appService = appService;
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction.setReadOnly(true);
+    }
+
+    public Optional<AccessLevel> resolve(String namespaceId) {
+        AccessLevel cached = accessLevels.get(namespaceId);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        UUID id;
+        try {
+            id = UUID.fromString(namespaceId);
+        } catch (IllegalArgumentException e) {
+            return Optional.empty();
+        }
+        // the transaction is only opened on a miss, so cache hits never touch the pool
+        Optional<AccessLevel> level = readTransaction.execute(status -> appService.findNamespaceContextById(id)
+                .map(context -> context.getNamespace().getValue().accessLevel()));
+        if (level == null) {
+            return Optional.empty();
+        }
+        level.ifPresent(accessLevel -> accessLevels.put(namespaceId, accessLevel));
+        return level;
+    }
+
+    @Override
+    public void onInvalidate(CacheRegion region, Set<String> keys) {
+        if (region == CacheRegion.namespace) {
+            keys.forEach(accessLevels::remove);
+        }
+    }
+
+    @Override
+    public void onInvalidateAll(CacheRegion region) {
+        if (region == CacheRegion.namespace) {
+            accessLevels.clear();
+        }
+    }
+}
@@ -0,0 +1,311 @@
+package com.tsu.api.service.cache;
+
+import com.tsu.api.config.CacheInvalidationConfig;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps in-process caches consistent across instances using Postgres LISTEN/NOTIFY.
+ * <p>
+ * Invalidations are applied locally right after the publishing transaction commits, then
+ * coalesced per region and sent to the other instances in batches. Each instance holds one
+ * dedicated, non-pooled connection that LISTENs on the channel; when that connection is lost
+ * every region is cleared on reconnect because notifications sent meanwhile are gone.
+ * <p>
+ * Payload format: {@code <instanceId>|<region>|<key>,<key>...}, where a single {@code *} key
+ * clears the whole region. Keys must not contain {@code ,} or {@code |}.
+ */
+@Slf4j
+@Component
+public class CacheInvalidationBus implements SmartLifecycle {
+
+    static final String ALL_KEYS = "*";
+    // Postgres rejects NOTIFY payloads of 8000 bytes or more
+    static final int MAX_PAYLOAD_BYTES = 7900;
+
+    private final CacheInvalidationConfig config;
+    private final JdbcTemplate jdbcTemplate;
+    private final DataSourceProperties dataSourceProperties;
+    private final ObjectProvider<CacheManager> cacheManager;
+    private final ObjectProvider<CacheInvalidationListener> listeners;
+    private final String instanceId = UUID.randomUUID().toString();
+    private final Map<CacheRegion, Set<String>> pending = new ConcurrentHashMap<>();
+
+    private volatile boolean running;
+    private ScheduledExecutorService flusher;
+    private Thread listenerThread;
+
+    public CacheInvalidationBus(CacheInvalidationConfig config,
+                                JdbcTemplate jdbcTemplate,
+                                DataSourceProperties dataSourceProperties,
+                                ObjectProvider<CacheManager> cacheManager,
+                                ObjectProvider<CacheInvalidationListener> listeners) {
+        this.config = config;
+        this.jdbcTemplate = jdbcTemplate;
+        this.dataSourceProperties = dataSourceProperties;
+        this.cacheManager = cacheManager;
+        this.listeners = listeners;
+    }
+
+    /**
+     * Invalidate keys on this and every other instance. When called inside a transaction the
+     * invalidation is deferred until after commit and dropped on rollback.
+     */
+    public void publish(CacheRegion region, String... keys) {
+        Set<String> keySet = new HashSet<>();
+        for (String key : keys) {
+            if (key != null && !key.isEmpty()) {
+                keySet.add(key);
+            }
+        }
+        if (keySet.isEmpty()) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    dispatch(region, keySet);
+                }
+            });
+        } else {
+            dispatch(region, keySet);
+        }
+    }
+
+    private void dispatch(CacheRegion region, Set<String> keys) {
+        evictLocal(region, keys);
+        if (!config.isEnabled()) {
+            return;
+        }
+        Set<String> regionPending = pending.computeIfAbsent(region, r -> ConcurrentHashMap.newKeySet());
+        if (regionPending.contains(ALL_KEYS)) {
+            return;
+        }
+        regionPending.addAll(keys);
+        if (regionPending.size() > config.getMaxKeysPerRegion()) {
+            // a burst this large is cheaper to resolve with a region clear than key by key
+            regionPending.clear();
+            regionPending.add(ALL_KEYS);
+        }
+    }
+
+    private void evictLocal(CacheRegion region, Set<String> keys) {
+        if (keys.contains(ALL_KEYS)) {
+            clearLocal(region);
+            return;
+        }
+        Cache cache = cacheFor(region);
+        if (cache != null) {
+            keys.forEach(cache::evict);
+        }
+        listeners.orderedStream().forEach(listener -> {
+            try {
+                listener.onInvalidate(region, keys);
+            } catch (RuntimeException e) {
+                log.warn("Cache invalidation listener {} failed for {}: {}", listener, region, e.getMessage());
+            }
+        });
+    }
+
+    private void clearLocal(CacheRegion region) {
+        Cache cache = cacheFor(region);
+        if (cache != null) {
+            cache.clear();
+        }
+        listeners.orderedStream().forEach(listener -> {
+            try {
+                listener.onInvalidateAll(region);
+            } catch (RuntimeException e) {
+                log.warn("Cache invalidation listener {} failed to clear {}: {}", listener, region, e.getMessage());
+            }
+        });
+    }
+
+    private Cache cacheFor(CacheRegion region) {
+        CacheManager manager = cacheManager.getIfAvailable();
+        return manager == null || region.getCacheName() == null ? null : manager.getCache(region.getCacheName());
+    }
+
+    // ==================== Publishing ====================
+
+    void flush() {
+        for (CacheRegion region : CacheRegion.values()) {
+            Set<String> regionPending = pending.get(region);
+            if (regionPending == null || regionPending.isEmpty()) {
+                continue;
+            }
+            List<String> keys = new ArrayList<>(regionPending);
+            regionPending.removeAll(keys);
+            try {
+                for (String payload : toPayloads(region, keys)) {
+                    jdbcTemplate.queryForObject("SELECT pg_notify(?, ?)", Object.class, config.getChannel(), payload);
+                }
+            } catch (RuntimeException e) {
+                // put them back; the next flush retries
+                log.warn("Failed to publish {} invalidations for {}: {}", keys.size(), region, e.getMessage());
+                regionPending.addAll(keys);
+            }
+        }
+    }
+
+    List<String> toPayloads(CacheRegion region, List<String> keys) {
+        String prefix = instanceId + "|" + region.name() + "|";
+        if (keys.contains(ALL_KEYS)) {
+            return List.of(prefix + ALL_KEYS);
+        }
+        List<String> payloads = new ArrayList<>();
+        StringBuilder current = new StringBuilder(prefix);
+        int bytes = prefix.length();
+        for (String key : keys) {
+            int keyBytes = key.getBytes(StandardCharsets.UTF_8).length + 1;
+            if (bytes + keyBytes > MAX_PAYLOAD_BYTES && current.length() > prefix.length()) {
+                payloads.add(current.toString());
+                current = new StringBuilder(prefix);
+                bytes = prefix.length();
+            }
+            if (current.length() > prefix.length()) {
+                current.append(',');
+            }
+            current.append(key);
+            bytes += keyBytes;
+        }
+        payloads.add(current.toString());
+        return payloads;
+    }
+
+    // ==================== Listening ====================
+
+    private void listenLoop() {
+        boolean connectedBefore = false;
+        while (running) {
+            try (Connection connection = DriverManager.getConnection(dataSourceProperties.determineUrl(),
+                    dataSourceProperties.determineUsername(), dataSourceProperties.determinePassword())) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN \"" + config.getChannel() + "\"");
+                }
+                log.info("Listening for cache invalidations on channel {}", config.getChannel());
+                if (connectedBefore) {
+                    log.info("Invalidation listener reconnected, clearing all local caches");
+                    for (CacheRegion region : CacheRegion.values()) {
+                        clearLocal(region);
+                    }
+                }
+                connectedBefore = true;
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(config.getPollTimeout());
+                    if (notifications != null) {
+                        for (PGNotification notification : notifications) {
+                            receive(notification.getParameter());
+                        }
+                    }
+                }
+            } catch (SQLException e) {
+                if (!running) {
+                    return;
+                }
+                log.warn("Invalidation listener connection lost, reconnecting in {}ms: {}",
+                        config.getReconnectDelay(), e.getMessage());
+                try {
+                    Thread.sleep(config.getReconnectDelay());
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private void receive(String payload) {
+        String[] parts = payload.split("\\|", 3);
+        if (parts.length != 3) {
+            log.warn("Ignoring malformed invalidation payload: {}", payload);
+            return;
+        }
+        if (instanceId.equals(parts[0])) {
+            return;
+        }
+        CacheRegion region;
+        try {
+            region = CacheRegion.valueOf(parts[1]);
+        } catch (IllegalArgumentException e) {
+            log.warn("Ignoring invalidation for unknown region: {}", parts[1]);
+            return;
+        }
+        Set<String> keys = new HashSet<>(Arrays.asList(parts[2].split(",")));
+        log.debug("Received {} invalidations for {} from {}", keys.size(), region, parts[0]);
+        evictLocal(region, keys);
+        listeners.orderedStream().forEach(listener -> {
+            try {
+                listener.onRemoteInvalidate(region, keys);
+            } catch (RuntimeException e) {
+                log.warn("Cache invalidation listener {} failed for remote {}: {}", listener, region, e.getMessage());
+            }
+        });
+    }
+
+    // ==================== Lifecycle ====================
+
+    @Override
+    public void start() {
+        if (!config.isEnabled()) {
+            log.info("Cross-instance cache invalidation is disabled");
+            return;
+        }
+        running = true;
+        flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "cache-invalidation-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(this::flush, config.getFlushInterval(), config.getFlushInterval(),
+                TimeUnit.MILLISECONDS);
+        listenerThread = new Thread(this::listenLoop, "cache-invalidation-listener");
+        listenerThread.setDaemon(true);
+        listenerThread.start();
+    }
+
+    @Override
+    public void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        flusher.shutdown();
+        try {
+            flusher.awaitTermination(config.getFlushInterval() * 4, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // last chance for anything committed during shutdown
+        flush();
+        listenerThread.interrupt();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+}
@@ -0,0 +1,31 @@
+package com.tsu.api.service.cache;
+
+import java.util.Set;
+
+/**
+ * Receives invalidations for in-process state that is not held in a Spring cache.
+ */
+public interface CacheInvalidationListener {
+
+    /**
+     * Called for both local and remote invalidations once the originating transaction committed.
+     *
+     * @param region region of the keys
+     * @param keys   invalidated keys, never empty
+     */
+    void onInvalidate(CacheRegion region, Set<String> keys);
+
+    /**
+     * Called when individual keys can no longer be trusted, either because a burst overflowed
+     * the batch or because the listener reconnected and may have missed notifications.
+     */
+    default void onInvalidateAll(CacheRegion region) {
+    }
+
+    /**
+     * Called after {@link #onInvalidate} or {@link #onInvalidateAll} when the change was committed
+     * by another instance. A single {@code *} key means the whole region.
+     */
+    default void onRemoteInvalidate(CacheRegion region, Set<String> keys) {
+    }
+}
@@ -0,0 +1,25 @@
+package com.tsu.api.service.cache;
+
+/**
+ * Logical groups of locally cached data that can be invalidated across instances.
+ * The cache name matches the Spring cache used for the region; regions without one only reach
+ * {@link CacheInvalidationListener}s.
+ */
+public enum CacheRegion {
+    // <principal>:<namespace id> pairs of new memberships, no cache. Declared first so that a
+    // batch carries the membership ahead of the change to the namespace itself
+    member(null),
+    namespace("namespaces"),
+    user("users"),
+    uri("namespaceUris");
+
+    private final String cacheName;
+
+    CacheRegion(String cacheName) {
+        this.cacheName = cacheName;
+    }
+
+    public String getCacheName() {
+        return cacheName;
+    }
+}
@@ -0,0 +1,215 @@
+package com.tsu.api.service.event;
+
+import com.tsu.api.config.NamespaceChangeFeedConfig;
+import com.tsu.api.http.res.NamespaceChangeEvent;
+import com.tsu.api.service.cache.CacheInvalidationListener;
+import com.tsu.api.service.cache.CacheRegion;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Fans out namespace changes to Server-Sent Events subscribers.
+ * <p>
+ * Events carry ids of the form {@code <epoch>-<sequence>} where the epoch identifies this
+ * instance's feed. A bounded ring of recent events serves resumes via Last-Event-ID; a resume
+ * point from another instance, one that already fell out of the ring or one further behind than
+ * the subscriber buffer holds gets a single {@link NamespaceChangeEvent#RESET} event instead. Each subscriber owns a bounded buffer and
+ * is disconnected when it fills up, so one slow client never holds memory for the others.
+ * Changes committed on other instances arrive through the invalidation bus and are relayed
+ * as {@link NamespaceChangeEvent#STALE} events without a diff.
+ * <p>
+ * Subscribers are keyed by principal. A namespace the principal creates or joins while the
+ * stream is open is added to its streams through {@link CacheRegion#member} invalidations, on
+ * this instance and the others, before the change itself is emitted.
+ */
+@Slf4j
+@Component
+public class NamespaceChangeFeed implements CacheInvalidationListener {
+
+    private static final char MEMBER_SEPARATOR = ':';
+
+    private final NamespaceChangeFeedConfig config;
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final Deque<ServerSentEvent<NamespaceChangeEvent>> recent = new ArrayDeque<>();
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private long sequence;
+
+    public NamespaceChangeFeed(NamespaceChangeFeedConfig config) {
+        this.config = config;
+    }
+
+    /**
+     * Publish a change once the current transaction commits; dropped on rollback.
+     */
+    public void publish(NamespaceChangeEvent event) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    emit(event);
+                }
+            });
+        } else {
+            emit(event);
+        }
+    }
+
+    /**
+     * Key of a {@link CacheRegion#member} invalidation that adds the namespace to the principal's
+     * open streams. Publish it before the change that should reach the principal.
+     *
+     * @return the key, or empty when the principal cannot be carried by the invalidation bus
+     */
+    public static Optional<String> memberKey(String principal, String namespaceId) {
+        if (principal == null || principal.indexOf(',') >= 0 || principal.indexOf('|') >= 0) {
+            return Optional.empty();
+        }
+        return Optional.of(principal + MEMBER_SEPARATOR + namespaceId);
+    }
+
+    /**
+     * Open a stream of changes to the given namespaces.
+     *
+     * @param principal    subscribing principal, receives namespaces granted to it later on
+     * @param namespaceIds namespaces visible to the subscriber
+     * @param lastEventId  last event the client received, or null for a fresh stream
+     * @throws IllegalStateException when this instance already serves the maximum number of subscribers
+     */
+    public Flux<ServerSentEvent<NamespaceChangeEvent>> subscribe(String principal, Set<String> namespaceIds, String lastEventId) {
+        if (subscribers.size() >= config.getMaxSubscribers()) {
+            throw new IllegalStateException("Too many change feed subscribers");
+        }
+        Set<String> visible = ConcurrentHashMap.newKeySet();
+        visible.addAll(namespaceIds);
+        Subscriber subscriber = new Subscriber(principal, visible,
+                Sinks.many().unicast().onBackpressureBuffer(new ArrayBlockingQueue<>(config.getSubscriberBuffer())),
+                Sinks.empty());
+        synchronized (this) {
+            if (lastEventId != null) {
+                replay(subscriber, lastEventId);
+            }
+            subscribers.add(subscriber);
+        }
+        Flux<ServerSentEvent<NamespaceChangeEvent>> heartbeat = Flux.interval(Duration.ofSeconds(config.getHeartbeatInterval()))
+                .map(i -> ServerSentEvent.<NamespaceChangeEvent>builder().comment("hb").build());
+        return Flux.merge(subscriber.events().asFlux(), heartbeat)
+                .takeUntilOther(subscriber.evicted().asMono())
+                .doFinally(signal -> subscribers.remove(subscriber));
+    }
+
+    private void replay(Subscriber subscriber, String lastEventId) {
+        int dash = lastEventId.lastIndexOf('-');
+        long lastSequence = -1;
+        if (dash > 0 && epoch.equals(lastEventId.substring(0, dash))) {
+            try {
+                lastSequence = Long.parseLong(lastEventId.substring(dash + 1));
+            } catch (NumberFormatException e) {
+                log.debug("Invalid Last-Event-ID: {}", lastEventId);
+            }
+        }
+        long oldest = recent.isEmpty() ? sequence + 1 : sequenceOf(recent.peekFirst());
+        // a backlog larger than the subscriber buffer would overflow before the client reads it,
+        // evicting it and making it reconnect with the same id forever
+        if (lastSequence < 0 || lastSequence + 1 < oldest || sequence - lastSequence > config.getSubscriberBuffer()) {
+            subscriber.events().tryEmitNext(toSse(sequence, NamespaceChangeEvent.builder()
+                    .typ(NamespaceChangeEvent.RESET)
+                    .build()));
+            return;
+        }
+        for (ServerSentEvent<NamespaceChangeEvent> sse : recent) {
+            if (sequenceOf(sse) > lastSequence && !offer(subscriber, sse)) {
+                return;
+            }
+        }
+    }
+
+    private synchronized void emit(NamespaceChangeEvent event) {
+        ServerSentEvent<NamespaceChangeEvent> sse = toSse(++sequence, event);
+        recent.addLast(sse);
+        while (recent.size() > config.getReplaySize()) {
+            recent.removeFirst();
+        }
+        for (Subscriber subscriber : subscribers) {
+            if (event.getNsId() == null || subscriber.namespaceIds().contains(event.getNsId())) {
+                offer(subscriber, sse);
+            }
+        }
+    }
+
+    private boolean offer(Subscriber subscriber, ServerSentEvent<NamespaceChangeEvent> sse) {
+        Sinks.EmitResult result = subscriber.events().tryEmitNext(sse);
+        if (result == Sinks.EmitResult.FAIL_OVERFLOW) {
+            // the client resumes from its last received id after reconnecting
+            log.info("Evicting slow change feed subscriber after {} buffered events", config.getSubscriberBuffer());
+            subscribers.remove(subscriber);
+            subscriber.evicted().tryEmitEmpty();
+            return false;
+        }
+        return result.isSuccess();
+    }
+
+    private ServerSentEvent<NamespaceChangeEvent> toSse(long seq, NamespaceChangeEvent event) {
+        return ServerSentEvent.<NamespaceChangeEvent>builder()
+                .id(epoch + "-" + seq)
+                .event("namespace")
+                .data(event)
+                .build();
+    }
+
+    private long sequenceOf(ServerSentEvent<NamespaceChangeEvent> sse) {
+        String id = Objects.requireNonNull(sse.id());
+        return Long.parseLong(id.substring(id.lastIndexOf('-') + 1));
+    }
+
+    @Override
+    public void onInvalidate(CacheRegion region, Set<String> keys) {
+        // local changes are published with their diff by NamespaceService; only memberships matter here
+        if (region != CacheRegion.member) {
+            return;
+        }
+        for (String key : keys) {
+            int separator = key.lastIndexOf(MEMBER_SEPARATOR);
+            if (separator <= 0) {
+                continue;
+            }
+            String principal = key.substring(0, separator);
+            String namespaceId = key.substring(separator + 1);
+            for (Subscriber subscriber : subscribers) {
+                if (principal.equals(subscriber.principal())) {
+                    subscriber.namespaceIds().add(namespaceId);
+                }
+            }
+        }
+    }
+
+    @Override
+    public void onRemoteInvalidate(CacheRegion region, Set<String> keys) {
+        if (region != CacheRegion.namespace) {
+            return;
+        }
+        if (keys.contains("*")) {
+            emit(NamespaceChangeEvent.builder().typ(NamespaceChangeEvent.RESET).build());
+            return;
+        }
+        keys.forEach(id -> emit(NamespaceChangeEvent.builder()
+                .typ(NamespaceChangeEvent.STALE)
+                .nsId(id)
+                .build()));
+    }
+
+    private record Subscriber(String principal,
+                              Set<String> namespaceIds,
+                              Sinks.Many<ServerSentEvent<NamespaceChangeEvent>> events,
+                              Sinks.Empty<Void> evicted) {
+    }
+}
@@ -0,0 +1,64 @@
+package com.tsu.api.service.keycloak;
+
+import jakarta.ws.rs.ProcessingException;
+import jakarta.ws.rs.core.Response;
+import org.jboss.resteasy.client.jaxrs.ClientHttpEngine;
+import org.jboss.resteasy.client.jaxrs.internal.ClientInvocation;
+
+import javax.net.ssl.HostnameVerifier;
+import javax.net.ssl.SSLContext;
+
+/**
+ * RESTEasy engine decorator that routes every admin client call through a {@link CircuitBreaker}.
+ * Server errors, I/O failures and slow calls count as failures; while the circuit is open calls
+ * fail immediately with a {@link ProcessingException} instead of tying up a request thread.
+ */
+public class CircuitBreakingHttpEngine implements ClientHttpEngine {
+
+    private final ClientHttpEngine delegate;
+    private final CircuitBreaker breaker;
+    private final long slowCallThresholdMillis;
+
+    public CircuitBreakingHttpEngine(ClientHttpEngine delegate, CircuitBreaker breaker, long slowCallThresholdMillis) {
+        this.delegate = delegate;
+        this.breaker = breaker;
+        this.slowCallThresholdMillis = slowCallThresholdMillis;
+    }
+
+    @Override
+    public Response invoke(jakarta.ws.rs.client.Invocation request) {
+        if (!breaker.tryAcquirePermission()) {
+            String uri = request instanceof ClientInvocation invocation ? invocation.getUri().getPath() : "";
+            throw new ProcessingException("Keycloak unavailable (circuit " + breaker.getName() + " open): " + uri);
+        }
+        long start = System.currentTimeMillis();
+        Response response;
+        try {
+            response = delegate.invoke(request);
+        } catch (RuntimeException e) {
+            breaker.onFailure();
+            throw e;
+        }
+        if (response.getStatus() >= 500 || System.currentTimeMillis() - start > slowCallThresholdMillis) {
+            breaker.onFailure();
+        } else {
+            breaker.onSuccess();
+        }
+        return response;
+    }
+
+    @Override
+    public SSLContext getSslContext() {
+        return delegate.getSslContext();
+    }
+
+    @Override
+    public HostnameVerifier getHostnameVerifier() {
+        return delegate.getHostnameVerifier();
+    }
+
+    @Override
+    public void close() {
+        delegate.close();
+    }
+}
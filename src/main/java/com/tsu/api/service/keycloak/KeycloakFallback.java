@@ -0,0 +1,160 @@
+package com.tsu.api.service.keycloak;
+
+import com.tsu.api.config.KeycloakClientConfig;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.ws.rs.ProcessingException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.reactive.function.client.WebClientException;
+
+import java.time.Clock;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Serves the last known result of a per-user call that may reach Keycloak (user sync, profile
+ * lookups) while the Keycloak circuit is open or a call fails because Keycloak is unreachable.
+ * Without a stored result, or when it is older than {@code keycloak.client.fallback-max-staleness},
+ * the failure propagates as before. A response built from a stored result carries
+ * {@code Warning: 110} and is flagged for the controller through {@link #isServedStale()}.
+ */
+@Slf4j
+@Component
+public class KeycloakFallback {
+
+    private static final int MAX_ENTRIES = 10000;
+    private static final String STALE_ATTRIBUTE = KeycloakFallback.class.getName() + ".stale";
+    private static final String STALE_WARNING = "110 - \"Response is Stale\"";
+
+    private final CircuitBreaker breaker;
+    private final KeycloakClientConfig config;
+    private final MeterRegistry meterRegistry;
+    private final Clock clock;
+    private final Map<String, Entry> lastKnown = Collections.synchronizedMap(
+            new LinkedHashMap<>(256, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                    return size() > MAX_ENTRIES;
+                }
+            });
+
+    @Autowired
+    public KeycloakFallback(CircuitBreaker breaker, KeycloakClientConfig config, MeterRegistry meterRegistry) {
+        this(breaker, config, meterRegistry, Clock.systemUTC());
+    }
+
+    KeycloakFallback(CircuitBreaker breaker, KeycloakClientConfig config, MeterRegistry meterRegistry, Clock clock) {
+        this.breaker = breaker;
+        this.config = config;
+        this.meterRegistry = meterRegistry;
+        this.clock = clock;
+    }
+
+    /**
+     * Whether the current request was answered from a stored result.
+     */
+    public static boolean isServedStale() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        return attributes != null
+                && attributes.getAttribute(STALE_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST) != null;
+    }
+
+    /**
+     * Run {@code call} for the current user, remembering its result under {@code operation}.
+     */
+    public <T> T callForCurrentUser(String operation, Supplier<T> call) {
+        String key = currentUserKey(operation);
+        if (key == null) {
+            return call.get();
+        }
+        if (breaker.getState() == CircuitBreaker.State.OPEN) {
+            T cached = lastKnown(key);
+            if (cached != null) {
+                return served(operation, cached, "circuit open");
+            }
+        }
+        try {
+            T value = call.get();
+            if (value != null) {
+                store(key, value);
+            }
+            return value;
+        } catch (ProcessingException | WebClientException e) {
+            T cached = lastKnown(key);
+            if (cached == null) {
+                throw e;
+            }
+            return served(operation, cached, e.getMessage());
+        }
+    }
+
+    /**
+     * Replace the stored result after the current user changed it.
+     */
+    public void rememberForCurrentUser(String operation, Object value) {
+        String key = currentUserKey(operation);
+        if (key != null && value != null) {
+            store(key, value);
+        }
+    }
+
+    /**
+     * Drop the stored result, e.g. when it can no longer be rebuilt from a write response.
+     */
+    public void forgetForCurrentUser(String operation) {
+        String key = currentUserKey(operation);
+        if (key != null) {
+            lastKnown.remove(key);
+        }
+    }
+
+    private void store(String key, Object value) {
+        lastKnown.put(key, new Entry(value, clock.millis()));
+    }
+
+    /**
+     * The stored result, unless it is older than the configured maximum staleness.
+     */
+    @SuppressWarnings("unchecked")
+    private <T> T lastKnown(String key) {
+        Entry entry = lastKnown.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (clock.millis() - entry.storedAt() > config.getFallbackMaxStaleness()) {
+            lastKnown.remove(key, entry);
+            return null;
+        }
+        return (T) entry.value();
+    }
+
+    private <T> T served(String operation, T cached, String reason) {
+        meterRegistry.counter("keycloak.fallback", "operation", operation).increment();
+        log.info("Serving last known {} while Keycloak is unavailable: {}", operation, reason);
+        if (RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes) {
+            attributes.setAttribute(STALE_ATTRIBUTE, Boolean.TRUE, RequestAttributes.SCOPE_REQUEST);
+            if (attributes.getResponse() != null) {
+                attributes.getResponse().setHeader("Warning", STALE_WARNING);
+            }
+        }
+        return cached;
+    }
+
+    private static String currentUserKey(String operation) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication == null || !authentication.isAuthenticated()
+                ? null
+                : operation + "|" + authentication.getName();
+    }
+
+    private record Entry(Object value, long storedAt) {
+    }
+}
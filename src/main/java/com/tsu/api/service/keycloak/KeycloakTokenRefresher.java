@@ -0,0 +1,34 @@
+package com.tsu.api.service.keycloak;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.keycloak.admin.client.Keycloak;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Refreshes the cached admin access token in the background before it expires, so login and
+ * user-sync requests reuse a valid token instead of paying for a token round trip themselves.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class KeycloakTokenRefresher {
+
+    private final Keycloak keycloak;
+    private final CircuitBreaker breaker;
+
+    @Scheduled(fixedDelayString = "${keycloak.client.token-refresh-interval:20000}",
+            initialDelayString = "${keycloak.client.token-refresh-interval:20000}")
+    public void refresh() {
+        if (breaker.getState() == CircuitBreaker.State.OPEN) {
+            return;
+        }
+        try {
+            // refreshes only when the token is within tokenMinValidity of expiring
+            keycloak.tokenManager().getAccessToken();
+        } catch (RuntimeException e) {
+            log.warn("Proactive Keycloak admin token refresh failed: {}", e.getMessage());
+        }
+    }
+}
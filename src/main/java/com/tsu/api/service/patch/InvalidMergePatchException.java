@@ -0,0 +1,16 @@
+package com.tsu.api.service.patch;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * A merge patch that is not an object, names members the target does not have, or removes a
+ * member that cannot be removed.
+ */
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class InvalidMergePatchException extends IllegalArgumentException {
+
+    public InvalidMergePatchException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,68 @@
+package com.tsu.api.service.patch;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * JSON Merge Patch (RFC 7396). Objects merge recursively, {@code null} removes a member and
+ * any other value, including arrays, replaces the target.
+ */
+public final class JsonMergePatch {
+
+    public static final String MEDIA_TYPE = "application/merge-patch+json";
+
+    private JsonMergePatch() {
+    }
+
+    /**
+     * Apply a patch without modifying the target.
+     *
+     * @param target current document, may be null
+     * @param patch  merge patch
+     * @return the patched document; a {@code null} patch removes the target and yields a {@code NullNode}
+     */
+    public static JsonNode apply(JsonNode target, JsonNode patch) {
+        if (patch == null || !patch.isObject()) {
+            return patch;
+        }
+        ObjectNode result = target != null && target.isObject()
+                ? ((ObjectNode) target).deepCopy()
+                : JsonNodeFactory.instance.objectNode();
+        Iterator<Map.Entry<String, JsonNode>> fields = patch.fields();
+        while (fields.hasNext()) {
+            Map.Entry<String, JsonNode> field = fields.next();
+            if (field.getValue().isNull()) {
+                result.remove(field.getKey());
+            } else {
+                result.set(field.getKey(), apply(result.get(field.getKey()), field.getValue()));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Reject patches that are not objects or that name members outside {@code allowed}.
+     *
+     * @throws InvalidMergePatchException when the patch does not fit the target
+     */
+    public static void requireMembers(JsonNode patch, Set<String> allowed) {
+        if (patch == null || !patch.isObject()) {
+            throw new InvalidMergePatchException("Merge patch must be a JSON object");
+        }
+        Set<String> unknown = new TreeSet<>();
+        patch.fieldNames().forEachRemaining(name -> {
+            if (!allowed.contains(name)) {
+                unknown.add(name);
+            }
+        });
+        if (!unknown.isEmpty()) {
+            throw new InvalidMergePatchException("Unknown or read-only members in merge patch: " + String.join(", ", unknown));
+        }
+    }
+}
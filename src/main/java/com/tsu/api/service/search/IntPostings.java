@@ -0,0 +1,61 @@
+package com.tsu.api.service.search;
+
+import java.util.Arrays;
+
+/**
+ * Growable, ascending list of document ids backed by a primitive array. Document ids are
+ * assigned in increasing order, so appending keeps the list sorted without boxing.
+ */
+final class IntPostings {
+
+    private int[] ids = new int[2];
+    private int size;
+
+    void add(int id) {
+        if (size > 0 && ids[size - 1] == id) {
+            return;
+        }
+        if (size == ids.length) {
+            ids = Arrays.copyOf(ids, size + (size >> 1) + 1);
+        }
+        ids[size++] = id;
+    }
+
+    int size() {
+        return size;
+    }
+
+    int get(int index) {
+        return ids[index];
+    }
+
+    void trim() {
+        if (ids.length != size) {
+            ids = Arrays.copyOf(ids, size);
+        }
+    }
+
+    /**
+     * Intersect sorted id arrays; the result is written into {@code target} and its length returned.
+     */
+    static int intersect(int[] target, int targetSize, IntPostings other) {
+        int i = 0, j = 0, n = 0;
+        while (i < targetSize && j < other.size) {
+            int a = target[i], b = other.ids[j];
+            if (a == b) {
+                target[n++] = a;
+                i++;
+                j++;
+            } else if (a < b) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        return n;
+    }
+
+    int[] toArray() {
+        return Arrays.copyOf(ids, size);
+    }
+}
@@ -0,0 +1,260 @@
+package com.tsu.api.service.search;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory typeahead index over namespace name, URI and description.
+ * <p>
+ * Queries shorter than three characters walk a prefix trie of name and URI tokens; longer
+ * queries intersect trigram posting lists and verify candidates with a substring check.
+ * Updates append a new document and tombstone the previous one; the index compacts itself
+ * once tombstones outnumber live documents.
+ */
+public class NamespaceSearchIndex {
+
+    public record Doc(String id, String name, String uri, String description) {
+    }
+
+    private record Hit(int rank, Doc doc) {
+    }
+
+    private static final int MIN_TRIGRAM_QUERY = 3;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final List<Doc> docs = new ArrayList<>();
+    private final List<String> texts = new ArrayList<>();
+    private final BitSet deleted = new BitSet();
+    private final Map<String, Integer> docIdsByNamespace = new HashMap<>();
+    private final Map<Long, IntPostings> trigrams = new HashMap<>();
+    private final TrieNode root = new TrieNode();
+
+    /**
+     * Replace the whole index content.
+     */
+    public void rebuild(Collection<Doc> all) {
+        lock.writeLock().lock();
+        try {
+            clear();
+            all.forEach(this::addInternal);
+            trigrams.values().forEach(IntPostings::trim);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void upsert(Doc doc) {
+        lock.writeLock().lock();
+        try {
+            removeInternal(doc.id());
+            addInternal(doc);
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(String namespaceId) {
+        lock.writeLock().lock();
+        try {
+            removeInternal(namespaceId);
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return docIdsByNamespace.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Find documents matching the query, best matches first: name prefix, then URI prefix,
+     * then word prefix, then any substring.
+     */
+    public List<Doc> search(String query, int limit) {
+        String q = normalize(query);
+        if (q.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        lock.readLock().lock();
+        try {
+            int[] candidates = q.length() < MIN_TRIGRAM_QUERY ? prefixCandidates(q) : trigramCandidates(q);
+            List<Hit> hits = new ArrayList<>();
+            for (int docId : candidates) {
+                if (!deleted.get(docId) && texts.get(docId).contains(q)) {
+                    Doc doc = docs.get(docId);
+                    hits.add(new Hit(rank(doc, q), doc));
+                }
+            }
+            hits.sort(Comparator.comparingInt(Hit::rank).thenComparing(hit -> hit.doc().name(), String.CASE_INSENSITIVE_ORDER));
+            return hits.stream().limit(limit).map(Hit::doc).toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private int rank(Doc doc, String q) {
+        String name = normalize(doc.name());
+        if (name.startsWith(q)) {
+            return 0;
+        }
+        if (normalize(doc.uri()).startsWith(q)) {
+            return 1;
+        }
+        return name.contains(" " + q) ? 2 : 3;
+    }
+
+    private int[] trigramCandidates(String q) {
+        List<IntPostings> lists = new ArrayList<>();
+        for (int i = 0; i + 3 <= q.length(); i++) {
+            IntPostings postings = trigrams.get(trigram(q, i));
+            if (postings == null) {
+                return new int[0];
+            }
+            lists.add(postings);
+        }
+        lists.sort(Comparator.comparingInt(IntPostings::size));
+        int[] result = lists.get(0).toArray();
+        int size = result.length;
+        for (int i = 1; i < lists.size() && size > 0; i++) {
+            size = IntPostings.intersect(result, size, lists.get(i));
+        }
+        return Arrays.copyOf(result, size);
+    }
+
+    private int[] prefixCandidates(String q) {
+        TrieNode node = root;
+        for (int i = 0; i < q.length() && node != null; i++) {
+            node = node.child(q.charAt(i));
+        }
+        if (node == null) {
+            return new int[0];
+        }
+        BitSet collected = new BitSet();
+        node.collect(collected);
+        return collected.stream().toArray();
+    }
+
+    private void addInternal(Doc doc) {
+        int docId = docs.size();
+        String text = normalize(doc.name()) + "\n" + normalize(doc.uri()) + "\n" + normalize(doc.description());
+        docs.add(doc);
+        texts.add(text);
+        docIdsByNamespace.put(doc.id(), docId);
+        for (int i = 0; i + 3 <= text.length(); i++) {
+            if (text.charAt(i) == '\n' || text.charAt(i + 1) == '\n' || text.charAt(i + 2) == '\n') {
+                continue;
+            }
+            trigrams.computeIfAbsent(trigram(text, i), k -> new IntPostings()).add(docId);
+        }
+        for (String token : tokens(doc.name() + " " + doc.uri())) {
+            TrieNode node = root;
+            for (int i = 0; i < token.length(); i++) {
+                node = node.childOrCreate(token.charAt(i));
+            }
+            node.add(docId);
+        }
+    }
+
+    private void removeInternal(String namespaceId) {
+        Integer docId = docIdsByNamespace.remove(namespaceId);
+        if (docId != null) {
+            deleted.set(docId);
+        }
+    }
+
+    private void compactIfNeeded() {
+        if (deleted.cardinality() > Math.max(64, docIdsByNamespace.size())) {
+            List<Doc> live = docIdsByNamespace.values().stream().sorted().map(docs::get).toList();
+            clear();
+            live.forEach(this::addInternal);
+        }
+    }
+
+    private void clear() {
+        docs.clear();
+        texts.clear();
+        deleted.clear();
+        docIdsByNamespace.clear();
+        trigrams.clear();
+        root.children = null;
+        root.keys = null;
+        root.docs = null;
+    }
+
+    private static long trigram(String s, int i) {
+        return ((long) s.charAt(i) << 32) | ((long) s.charAt(i + 1) << 16) | s.charAt(i + 2);
+    }
+
+    private static List<String> tokens(String s) {
+        List<String> tokens = new ArrayList<>();
+        for (String token : normalize(s).split("[^\\p{L}\\p{N}]+")) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    private static String normalize(String s) {
+        return s == null ? "" : s.strip().toLowerCase(Locale.ROOT);
+    }
+
+    private static final class TrieNode {
+        private char[] keys;
+        private TrieNode[] children;
+        private IntPostings docs;
+
+        TrieNode child(char c) {
+            if (keys != null) {
+                for (int i = 0; i < keys.length; i++) {
+                    if (keys[i] == c) {
+                        return children[i];
+                    }
+                }
+            }
+            return null;
+        }
+
+        TrieNode childOrCreate(char c) {
+            TrieNode existing = child(c);
+            if (existing != null) {
+                return existing;
+            }
+            TrieNode node = new TrieNode();
+            int n = keys == null ? 0 : keys.length;
+            keys = keys == null ? new char[1] : Arrays.copyOf(keys, n + 1);
+            children = children == null ? new TrieNode[1] : Arrays.copyOf(children, n + 1);
+            keys[n] = c;
+            children[n] = node;
+            return node;
+        }
+
+        void add(int docId) {
+            if (docs == null) {
+                docs = new IntPostings();
+            }
+            docs.add(docId);
+        }
+
+        void collect(BitSet target) {
+            if (docs != null) {
+                for (int i = 0; i < docs.size(); i++) {
+                    target.set(docs.get(i));
+                }
+            }
+            if (children != null) {
+                for (TrieNode child : children) {
+                    child.collect(target);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.tsu.api.service.search;
+
+import com.tsu.api.config.NamespaceSearchConfig;
+import com.tsu.api.service.cache.CacheInvalidationListener;
+import com.tsu.api.service.cache.CacheRegion;
+import com.tsu.auth.api.AccessLevel;
+import com.tsu.auth.security.NamespaceContext;
+import com.tsu.namespace.api.Namespace;
+import com.tsu.namespace.service.AppService;
+import com.tsu.namespace.val.NamespaceVal;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Keeps a {@link NamespaceSearchIndex} of open, active namespaces in sync with the database.
+ * The index is built once the application is ready and updated through the invalidation bus,
+ * which covers namespaces changed on this instance as well as on the others. Reindexing runs
+ * on a single background thread, so neither committing requests nor the invalidation listener
+ * wait for the database reads it needs; pending ids and rebuilds are coalesced.
+ */
+@Slf4j
+@Component
+public class NamespaceSearchService implements CacheInvalidationListener, DisposableBean {
+
+    private final NamespaceSearchConfig config;
+    private final AppService appService;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readTransaction;
+    private final NamespaceSearchIndex index = new NamespaceSearchIndex();
+    private final ExecutorService indexer = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "namespace-search-indexer");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final Set<String> pendingIds = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean reindexPending = new AtomicBoolean();
+    private final AtomicBoolean rebuildPending = new AtomicBoolean();
+
+    public NamespaceSearchService(NamespaceSearchConfig config, AppService appService, JdbcTemplate jdbcTemplate,
+                                  PlatformTransactionManager transactionManager) {
+        this.config = config;
+        this.appService = appService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction.setReadOnly(true);
+        this.readTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        List<UUID> ids = jdbcTemplate.queryForList(config.getIdQuery(), UUID.class);
+        List<NamespaceSearchIndex.Doc> docs = new ArrayList<>();
+        for (int from = 0; from < ids.size(); from += config.getRebuildBatchSize()) {
+            List<UUID> batch = ids.subList(from, Math.min(from + config.getRebuildBatchSize(), ids.size()));
+            List<NamespaceSearchIndex.Doc> loaded = readTransaction.execute(status -> batch.stream()
+                    .map(this::load)
+                    .flatMap(Optional::stream)
+                    .filter(this::isSearchable)
+                    .map(this::toDoc)
+                    .toList());
+            if (loaded != null) {
+                docs.addAll(loaded);
+            }
+        }
+        index.rebuild(docs);
+        log.info("Indexed {} open namespaces for search in {}ms", index.size(), System.currentTimeMillis() - start);
+    }
+
+    public List<NamespaceSearchIndex.Doc> search(String query, int limit) {
+        return index.search(query, limit);
+    }
+
+    @Override
+    public void onInvalidate(CacheRegion region, Set<String> keys) {
+        if (region != CacheRegion.namespace) {
+            return;
+        }
+        pendingIds.addAll(keys);
+        if (reindexPending.compareAndSet(false, true)) {
+            indexer.execute(this::reindexPending);
+        }
+    }
+
+    @Override
+    public void onInvalidateAll(CacheRegion region) {
+        if (region == CacheRegion.namespace && rebuildPending.compareAndSet(false, true)) {
+            indexer.execute(() -> {
+                rebuildPending.set(false);
+                try {
+                    rebuild();
+                } catch (RuntimeException e) {
+                    log.warn("Failed to rebuild namespace search index: {}", e.getMessage());
+                }
+            });
+        }
+    }
+
+    private void reindexPending() {
+        // ids added from here on schedule another run
+        reindexPending.set(false);
+        List<String> keys = new ArrayList<>(pendingIds);
+        pendingIds.removeAll(keys);
+        for (String key : keys) {
+            try {
+                Optional<NamespaceVal> val = readTransaction.execute(status -> load(UUID.fromString(key)));
+                if (val != null && val.isPresent() && isSearchable(val.get())) {
+                    index.upsert(toDoc(val.get()));
+                } else {
+                    index.remove(key);
+                }
+            } catch (RuntimeException e) {
+                log.warn("Failed to reindex namespace {}: {}", key, e.getMessage());
+            }
+        }
+    }
+
+    private Optional<NamespaceVal> load(UUID id) {
+        return appService.findNamespaceContextById(id)
+                .map(NamespaceContext::getNamespace)
+                .map(Namespace::getValue);
+    }
+
+    private boolean isSearchable(NamespaceVal val) {
+        return val.active() && val.accessLevel() == AccessLevel.open;
+    }
+
+    private NamespaceSearchIndex.Doc toDoc(NamespaceVal val) {
+        return new NamespaceSearchIndex.Doc(val.id().toString(), val.name(), val.uri(), val.description());
+    }
+
+    @Override
+    public void destroy() {
+        indexer.shutdownNow();
+    }
+}
@@ -0,0 +1,22 @@
+package com.tsu.api.service.storage;
+
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Empties and removes buckets of a store provider with parallel batched deletes.
+ */
+public interface BucketDrainer {
+
+    /**
+     * Delete up to {@code listSize} objects from the bucket, in batches of {@code batchSize}
+     * submitted to {@code executor}.
+     *
+     * @return what was deleted in this round; {@link StorageUsage#EMPTY} once the bucket is empty
+     */
+    StorageUsage drainRound(String bucket, int listSize, int batchSize, ExecutorService executor);
+
+    /**
+     * Remove the (empty) bucket itself; a bucket that no longer exists is not an error.
+     */
+    void deleteBucket(String bucket);
+}
@@ -0,0 +1,10 @@
+package com.tsu.api.service.storage;
+
+/**
+ * Computes the exact usage of a bucket by listing all of its objects. Expensive; only used
+ * to reconcile the incrementally maintained counters.
+ */
+public interface BucketUsageScanner {
+
+    StorageUsage scan(String bucket);
+}
@@ -0,0 +1,87 @@
+package com.tsu.api.service.storage;
+
+import lombok.RequiredArgsConstructor;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+/**
+ * Drains buckets of the file system provider, which stores each bucket as a directory under the root.
+ */
+@RequiredArgsConstructor
+public class FileSystemBucketDrainer implements BucketDrainer {
+
+    private final Path root;
+
+    @Override
+    public StorageUsage drainRound(String bucket, int listSize, int batchSize, ExecutorService executor) {
+        Path dir = root.resolve(bucket);
+        if (!Files.isDirectory(dir)) {
+            return StorageUsage.EMPTY;
+        }
+        List<Path> files;
+        try (Stream<Path> found = Files.find(dir, Integer.MAX_VALUE, (path, attrs) -> attrs.isRegularFile())) {
+            files = found.limit(listSize).toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        List<Future<StorageUsage>> futures = new ArrayList<>();
+        for (int from = 0; from < files.size(); from += batchSize) {
+            List<Path> batch = files.subList(from, Math.min(from + batchSize, files.size()));
+            futures.add(executor.submit(() -> deleteBatch(batch)));
+        }
+        long bytes = 0;
+        long objects = 0;
+        for (Future<StorageUsage> future : futures) {
+            try {
+                StorageUsage deleted = future.get();
+                bytes += deleted.bytes();
+                objects += deleted.objects();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while draining bucket " + bucket, e);
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Failed to drain bucket " + bucket, e.getCause());
+            }
+        }
+        return new StorageUsage(bytes, objects);
+    }
+
+    private StorageUsage deleteBatch(List<Path> batch) throws IOException {
+        long bytes = 0;
+        long objects = 0;
+        for (Path file : batch) {
+            long size = Files.size(file);
+            if (Files.deleteIfExists(file)) {
+                bytes += size;
+                objects++;
+            }
+        }
+        return new StorageUsage(bytes, objects);
+    }
+
+    @Override
+    public void deleteBucket(String bucket) {
+        Path dir = root.resolve(bucket);
+        if (!Files.exists(dir)) {
+            return;
+        }
+        // only empty directories are left once the bucket is drained
+        try (Stream<Path> paths = Files.walk(dir)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(path);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.tsu.api.service.storage;
+
+import lombok.RequiredArgsConstructor;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.stream.Stream;
+
+/**
+ * Scans buckets of the file system provider, which stores each bucket as a directory under the root.
+ */
+@RequiredArgsConstructor
+public class FileSystemBucketUsageScanner implements BucketUsageScanner {
+
+    private final Path root;
+
+    @Override
+    public StorageUsage scan(String bucket) {
+        Path dir = root.resolve(bucket);
+        if (!Files.isDirectory(dir)) {
+            return StorageUsage.EMPTY;
+        }
+        long[] totals = new long[2];
+        try (Stream<Path> files = Files.find(dir, Integer.MAX_VALUE, (path, attrs) -> attrs.isRegularFile())) {
+            files.forEach(path -> {
+                try {
+                    totals[0] += Files.readAttributes(path, BasicFileAttributes.class).size();
+                    totals[1]++;
+                } catch (IOException e) {
+                    // deleted while scanning
+                }
+            });
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return new StorageUsage(totals[0], totals[1]);
+    }
+}
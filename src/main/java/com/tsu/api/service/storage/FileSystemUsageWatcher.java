@@ -0,0 +1,177 @@
+package com.tsu.api.service.storage;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.*;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static java.nio.file.StandardWatchEventKinds.*;
+
+/**
+ * Records writes and deletes of the file system store provider, which keeps each bucket as a
+ * directory under the root. The provider's object API lives in bx-entry, so instead of wrapping
+ * it the tracked bucket directories are watched and every file change is recorded as it happens.
+ * Quotas cannot be enforced before a write here; the GCS path does that in {@link UsageTrackingStorage}.
+ */
+@Slf4j
+public class FileSystemUsageWatcher implements SmartLifecycle {
+
+    private final Path root;
+    private final StorageUsageTracker tracker;
+    private final Map<Path, Long> sizes = new ConcurrentHashMap<>();
+    private final Map<WatchKey, Path> directories = new ConcurrentHashMap<>();
+    private final Set<String> watchedBuckets = ConcurrentHashMap.newKeySet();
+
+    private volatile boolean running;
+    private WatchService watchService;
+    private Thread thread;
+
+    public FileSystemUsageWatcher(Path root, StorageUsageTracker tracker) {
+        this.root = root;
+        this.tracker = tracker;
+    }
+
+    private void watchLoop() {
+        while (running) {
+            watchNewBuckets();
+            WatchKey key;
+            try {
+                key = watchService.poll(1, TimeUnit.SECONDS);
+            } catch (InterruptedException | ClosedWatchServiceException e) {
+                return;
+            }
+            if (key == null) {
+                continue;
+            }
+            Path dir = directories.get(key);
+            for (WatchEvent<?> event : key.pollEvents()) {
+                if (dir == null || event.kind() == OVERFLOW) {
+                    log.debug("Missed file system events under {}, the next reconcile corrects usage", dir);
+                    continue;
+                }
+                Path path = dir.resolve((Path) event.context());
+                String bucket = root.relativize(path).getName(0).toString();
+                if (!tracker.getTrackedBuckets().contains(bucket)) {
+                    continue;
+                }
+                if (event.kind() == ENTRY_DELETE) {
+                    deleted(path, bucket);
+                } else if (Files.isDirectory(path, LinkOption.NOFOLLOW_LINKS)) {
+                    watchTree(path, bucket, true);
+                } else {
+                    written(path, bucket);
+                }
+            }
+            if (!key.reset()) {
+                directories.remove(key);
+            }
+        }
+    }
+
+    private void watchNewBuckets() {
+        for (String bucket : tracker.getTrackedBuckets()) {
+            Path dir = root.resolve(bucket);
+            if (!watchedBuckets.contains(bucket) && Files.isDirectory(dir)) {
+                watchedBuckets.add(bucket);
+                // existing files are already part of the tracked totals
+                watchTree(dir, bucket, false);
+            }
+        }
+    }
+
+    private void watchTree(Path dir, String bucket, boolean record) {
+        try (Stream<Path> paths = Files.walk(dir)) {
+            paths.forEach(path -> {
+                if (Files.isDirectory(path, LinkOption.NOFOLLOW_LINKS)) {
+                    try {
+                        directories.put(path.register(watchService, ENTRY_CREATE, ENTRY_MODIFY, ENTRY_DELETE), path);
+                    } catch (IOException e) {
+                        log.warn("Cannot watch {}: {}", path, e.getMessage());
+                    }
+                } else if (record) {
+                    written(path, bucket);
+                } else {
+                    size(path).ifPresent(size -> sizes.put(path, size));
+                }
+            });
+        } catch (IOException | UncheckedIOException e) {
+            log.warn("Cannot watch bucket directory {}: {}", dir, e.getMessage());
+        }
+    }
+
+    private void written(Path path, String bucket) {
+        size(path).ifPresent(size -> {
+            Long previous = sizes.put(path, size);
+            long delta = size - (previous == null ? 0 : previous);
+            if (delta != 0 || previous == null) {
+                tracker.record(bucket, delta, previous == null ? 1 : 0);
+            }
+        });
+    }
+
+    private void deleted(Path path, String bucket) {
+        Long size = sizes.remove(path);
+        if (size != null) {
+            tracker.recordDelete(bucket, size);
+            return;
+        }
+        // a removed directory takes every file below it along
+        sizes.keySet().removeIf(file -> {
+            if (file.startsWith(path)) {
+                tracker.recordDelete(bucket, sizes.getOrDefault(file, 0L));
+                return true;
+            }
+            return false;
+        });
+    }
+
+    private static Optional<Long> size(Path path) {
+        try {
+            return Optional.of(Files.size(path));
+        } catch (IOException e) {
+            // removed before it could be read; its delete event follows
+            return Optional.empty();
+        }
+    }
+
+    @Override
+    public void start() {
+        try {
+            watchService = root.getFileSystem().newWatchService();
+        } catch (IOException e) {
+            log.warn("File system usage tracking unavailable: {}", e.getMessage());
+            return;
+        }
+        running = true;
+        thread = new Thread(this::watchLoop, "storage-usage-watcher");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @Override
+    public void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        try {
+            watchService.close();
+        } catch (IOException e) {
+            log.debug("Failed to close watch service: {}", e.getMessage());
+        }
+        thread.interrupt();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+}
@@ -0,0 +1,75 @@
+package com.tsu.api.service.storage;
+
+import com.google.cloud.storage.Blob;
+import com.google.cloud.storage.BlobId;
+import com.google.cloud.storage.Storage;
+import com.google.cloud.storage.StorageException;
+import lombok.RequiredArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+@RequiredArgsConstructor
+public class GcsBucketDrainer implements BucketDrainer {
+
+    private final Storage storage;
+
+    @Override
+    public StorageUsage drainRound(String bucket, int listSize, int batchSize, ExecutorService executor) {
+        List<Blob> blobs = new ArrayList<>();
+        try {
+            // always the first page: deleted objects drop out, so no page token has to survive a restart
+            storage.list(bucket, Storage.BlobListOption.pageSize(listSize),
+                            Storage.BlobListOption.fields(Storage.BlobField.NAME, Storage.BlobField.SIZE))
+                    .getValues()
+                    .forEach(blobs::add);
+        } catch (StorageException e) {
+            if (e.getCode() == 404) {
+                return StorageUsage.EMPTY;
+            }
+            throw e;
+        }
+        List<Future<StorageUsage>> futures = new ArrayList<>();
+        for (int from = 0; from < blobs.size(); from += batchSize) {
+            List<Blob> batch = blobs.subList(from, Math.min(from + batchSize, blobs.size()));
+            futures.add(executor.submit(() -> deleteBatch(batch)));
+        }
+        long bytes = 0;
+        long objects = 0;
+        for (Future<StorageUsage> future : futures) {
+            try {
+                StorageUsage deleted = future.get();
+                bytes += deleted.bytes();
+                objects += deleted.objects();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while draining bucket " + bucket, e);
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Failed to drain bucket " + bucket, e.getCause());
+            }
+        }
+        return new StorageUsage(bytes, objects);
+    }
+
+    private StorageUsage deleteBatch(List<Blob> batch) {
+        List<BlobId> ids = batch.stream().map(Blob::getBlobId).toList();
+        List<Boolean> results = storage.delete(ids);
+        long bytes = 0;
+        long objects = 0;
+        for (int i = 0; i < results.size(); i++) {
+            if (Boolean.TRUE.equals(results.get(i))) {
+                bytes += batch.get(i).getSize() == null ? 0 : batch.get(i).getSize();
+                objects++;
+            }
+        }
+        return new StorageUsage(bytes, objects);
+    }
+
+    @Override
+    public void deleteBucket(String bucket) {
+        storage.delete(bucket);
+    }
+}
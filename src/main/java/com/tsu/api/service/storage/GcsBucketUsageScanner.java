@@ -0,0 +1,24 @@
+package com.tsu.api.service.storage;
+
+import com.google.cloud.storage.Blob;
+import com.google.cloud.storage.Storage;
+import lombok.RequiredArgsConstructor;
+
+@RequiredArgsConstructor
+public class GcsBucketUsageScanner implements BucketUsageScanner {
+
+    private final Storage storage;
+
+    @Override
+    public StorageUsage scan(String bucket) {
+        long bytes = 0;
+        long objects = 0;
+        for (Blob blob : storage.list(bucket,
+                Storage.BlobListOption.pageSize(1000),
+                Storage.BlobListOption.fields(Storage.BlobField.SIZE)).iterateAll()) {
+            bytes += blob.getSize() == null ? 0 : blob.getSize();
+            objects++;
+        }
+        return new StorageUsage(bytes, objects);
+    }
+}
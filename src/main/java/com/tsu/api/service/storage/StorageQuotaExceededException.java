@@ -0,0 +1,15 @@
+package com.tsu.api.service.storage;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Thrown on the write path when storing an object would take a bucket over its quota.
+ */
+@ResponseStatus(HttpStatus.PAYLOAD_TOO_LARGE)
+public class StorageQuotaExceededException extends RuntimeException {
+
+    public StorageQuotaExceededException(String bucket) {
+        super("Storage quota exceeded for bucket " + bucket);
+    }
+}
@@ -0,0 +1,9 @@
+package com.tsu.api.service.storage;
+
+/**
+ * Point-in-time storage usage of a bucket.
+ */
+public record StorageUsage(long bytes, long objects) {
+
+    public static final StorageUsage EMPTY = new StorageUsage(0, 0);
+}
@@ -0,0 +1,328 @@
+package com.tsu.api.service.storage;
+
+import com.tsu.api.config.StorageUsageConfig;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Tracks bytes and object counts per bucket without listing buckets.
+ * <p>
+ * Writes and deletes record deltas in memory, fed by {@link UsageTrackingStorage} on GCS and by
+ * {@link FileSystemUsageWatcher} for the file system provider; deltas are flushed in one batch as additive
+ * upserts, so every instance contributes to the same totals in {@code namespace_storage_usage}.
+ * After each flush the totals of the flushed buckets are re-read; all others are refreshed on a
+ * slower schedule. A periodic reconcile lists a bucket and applies the difference between the
+ * listing and the recorded total as a correction, which keeps deltas recorded during the scan intact.
+ */
+@Slf4j
+@Component
+public class StorageUsageTracker implements DisposableBean {
+
+    private static final String UPSERT = """
+            INSERT INTO namespace_storage_usage (bucket, bytes, objects, updated_at)
+            VALUES (?, ?, ?, now())
+            ON CONFLICT (bucket) DO UPDATE
+            SET bytes = namespace_storage_usage.bytes + excluded.bytes,
+                objects = namespace_storage_usage.objects + excluded.objects,
+                updated_at = now()
+            WHERE namespace_storage_usage.deleted_at IS NULL
+            """;
+
+    private final StorageUsageConfig config;
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectProvider<BucketUsageScanner> scanner;
+    private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+    private final ExecutorService reconciler = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "storage-usage-reconcile");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicBoolean reconciling = new AtomicBoolean();
+    private final Set<String> inexact = ConcurrentHashMap.newKeySet();
+
+    public StorageUsageTracker(StorageUsageConfig config, JdbcTemplate jdbcTemplate,
+                               ObjectProvider<BucketUsageScanner> scanner) {
+        this.config = config;
+        this.jdbcTemplate = jdbcTemplate;
+        this.scanner = scanner;
+    }
+
+    /**
+     * The {@code namespace_storage_usage} table is created by the app-upgrade run, see {@code db/bxspace-api-schema.sql}.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        refreshAll();
+        log.info("Loaded storage usage for {} buckets", counters.size());
+    }
+
+    /**
+     * Start tracking a new, empty bucket, reviving the row of an earlier bucket with the same name.
+     */
+    public void register(String bucket) {
+        jdbcTemplate.update("""
+                INSERT INTO namespace_storage_usage (bucket) VALUES (?)
+                ON CONFLICT (bucket) DO UPDATE SET bytes = 0, objects = 0, deleted_at = NULL, updated_at = now()
+                WHERE namespace_storage_usage.deleted_at IS NOT NULL
+                """, bucket);
+        counters.computeIfAbsent(bucket, b -> new Counter());
+    }
+
+    /**
+     * Stop tracking a bucket that has been deleted. The row stays behind as a tombstone, so
+     * deltas other instances still hold for the bucket are dropped instead of recreating it, and
+     * their next refresh drops the bucket as well.
+     */
+    public void forget(String bucket) {
+        counters.remove(bucket);
+        inexact.remove(bucket);
+        jdbcTemplate.update("UPDATE namespace_storage_usage SET deleted_at = now(), updated_at = now() WHERE bucket = ?", bucket);
+    }
+
+    public void recordWrite(String bucket, long bytes) {
+        record(bucket, bytes, 1);
+    }
+
+    public void recordDelete(String bucket, long bytes) {
+        record(bucket, -bytes, -1);
+    }
+
+    /**
+     * Note that a recorded change left the byte total of the bucket off, e.g. a delete whose size
+     * was not known; the bucket is reconciled within {@code storage.usage.inexact-reconcile-interval}.
+     */
+    public void markInexact(String bucket) {
+        inexact.add(bucket);
+    }
+
+    boolean isInexact(String bucket) {
+        return inexact.contains(bucket);
+    }
+
+    /**
+     * Record a change in usage, e.g. an overwrite changes bytes without changing the object count.
+     */
+    public void record(String bucket, long bytesDelta, long objectsDelta) {
+        Counter counter = counters.computeIfAbsent(bucket, b -> new Counter());
+        counter.bytes.addAndGet(bytesDelta);
+        counter.objects.addAndGet(objectsDelta);
+        counter.pendingBytes.addAndGet(bytesDelta);
+        counter.pendingObjects.addAndGet(objectsDelta);
+    }
+
+    public Set<String> getTrackedBuckets() {
+        return Set.copyOf(counters.keySet());
+    }
+
+    public StorageUsage getUsage(String bucket) {
+        Counter counter = counters.get(bucket);
+        return counter == null ? StorageUsage.EMPTY : new StorageUsage(counter.bytes.get(), counter.objects.get());
+    }
+
+    /**
+     * @return the per-bucket quota, or null when unlimited
+     */
+    public Long getQuotaBytes() {
+        return config.getDefaultQuotaBytes() > 0 ? config.getDefaultQuotaBytes() : null;
+    }
+
+    /**
+     * @return false when storing {@code additionalBytes} more would exceed the bucket quota
+     */
+    public boolean isWithinQuota(String bucket, long additionalBytes) {
+        long quota = config.getDefaultQuotaBytes();
+        return quota <= 0 || getUsage(bucket).bytes() + additionalBytes <= quota;
+    }
+
+    /**
+     * Write pending deltas and re-read the totals of the buckets just written; idle instances
+     * issue no queries.
+     */
+    @Scheduled(fixedDelayString = "${storage.usage.flush-interval:10000}")
+    public void flush() {
+        List<Object[]> batch = new ArrayList<>();
+        List<Counter> flushed = new ArrayList<>();
+        counters.forEach((bucket, counter) -> {
+            long bytes = counter.pendingBytes.getAndSet(0);
+            long objects = counter.pendingObjects.getAndSet(0);
+            if (bytes != 0 || objects != 0) {
+                batch.add(new Object[]{bucket, bytes, objects});
+                flushed.add(counter);
+            }
+        });
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            jdbcTemplate.batchUpdate(UPSERT, batch);
+        } catch (RuntimeException e) {
+            log.warn("Failed to flush storage usage for {} buckets: {}", batch.size(), e.getMessage());
+            for (int i = 0; i < batch.size(); i++) {
+                flushed.get(i).pendingBytes.addAndGet((long) batch.get(i)[1]);
+                flushed.get(i).pendingObjects.addAndGet((long) batch.get(i)[2]);
+            }
+            return;
+        }
+        refresh(batch.stream().map(row -> (String) row[0]).toArray(String[]::new));
+    }
+
+    /**
+     * Pick up usage recorded by other instances for buckets this one has not written to lately,
+     * and drop buckets deleted meanwhile. Far less frequent than the flush, since only quota
+     * checks on this instance depend on it.
+     */
+    @Scheduled(fixedDelayString = "${storage.usage.refresh-interval:300000}",
+            initialDelayString = "${storage.usage.refresh-interval:300000}")
+    public void refreshAll() {
+        Set<String> live = new HashSet<>();
+        jdbcTemplate.query("SELECT bucket, bytes, objects, deleted_at IS NOT NULL FROM namespace_storage_usage",
+                rs -> {
+                    if (apply(rs)) {
+                        live.add(rs.getString(1));
+                    }
+                });
+        // rows removed outright; counters with unflushed deltas create theirs on the next flush
+        counters.entrySet().removeIf(entry -> !live.contains(entry.getKey())
+                && entry.getValue().pendingBytes.get() == 0 && entry.getValue().pendingObjects.get() == 0);
+    }
+
+    private void refresh(String... buckets) {
+        jdbcTemplate.query("SELECT bucket, bytes, objects, deleted_at IS NOT NULL FROM namespace_storage_usage WHERE bucket = ANY(?)",
+                rs -> {
+                    apply(rs);
+                }, (Object) buckets);
+    }
+
+    /**
+     * @return false when the row is a tombstone and the bucket was dropped
+     */
+    private boolean apply(ResultSet rs) throws SQLException {
+        String bucket = rs.getString(1);
+        if (rs.getBoolean(4)) {
+            // deleted, possibly by another instance
+            counters.remove(bucket);
+            return false;
+        }
+        Counter counter = counters.computeIfAbsent(bucket, b -> new Counter());
+        // totals from all instances plus whatever this instance has not flushed yet
+        counter.bytes.set(rs.getLong(2) + counter.pendingBytes.get());
+        counter.objects.set(rs.getLong(3) + counter.pendingObjects.get());
+        return true;
+    }
+
+    /**
+     * Hand a reconcile pass to its own thread, so that listing large buckets does not hold up
+     * the flush or other scheduled tasks; skipped while the previous pass is still running.
+     */
+    @Scheduled(fixedDelayString = "${storage.usage.reconcile-interval:21600000}",
+            initialDelayString = "${storage.usage.reconcile-interval:21600000}")
+    public void scheduleReconcile() {
+        submitReconcile(this::reconcile);
+    }
+
+    /**
+     * Reconcile the buckets whose byte totals are known to be off, ahead of the regular pass.
+     */
+    @Scheduled(fixedDelayString = "${storage.usage.inexact-reconcile-interval:300000}",
+            initialDelayString = "${storage.usage.inexact-reconcile-interval:300000}")
+    public void scheduleInexactReconcile() {
+        if (inexact.isEmpty()) {
+            return;
+        }
+        submitReconcile(usageScanner -> {
+            for (String bucket : List.copyOf(inexact)) {
+                if (Thread.currentThread().isInterrupted()) {
+                    return;
+                }
+                try {
+                    reconcile(bucket, usageScanner);
+                } catch (RuntimeException e) {
+                    log.warn("Failed to reconcile storage usage of bucket {}: {}", bucket, e.getMessage());
+                }
+            }
+        });
+    }
+
+    private void submitReconcile(Consumer<BucketUsageScanner> pass) {
+        BucketUsageScanner usageScanner = scanner.getIfAvailable();
+        if (usageScanner != null && reconciling.compareAndSet(false, true)) {
+            reconciler.execute(() -> {
+                try {
+                    pass.accept(usageScanner);
+                } finally {
+                    reconciling.set(false);
+                }
+            });
+        }
+    }
+
+    private void reconcile(BucketUsageScanner usageScanner) {
+        long intervalSeconds = config.getReconcileInterval() / 1000;
+        // claim buckets so that only one instance scans each of them per interval
+        List<String> buckets = jdbcTemplate.queryForList("""
+                UPDATE namespace_storage_usage SET reconciled_at = now()
+                WHERE deleted_at IS NULL
+                  AND (reconciled_at IS NULL OR reconciled_at < now() - make_interval(secs => ?))
+                RETURNING bucket
+                """, String.class, intervalSeconds);
+        for (String bucket : buckets) {
+            if (Thread.currentThread().isInterrupted()) {
+                return;
+            }
+            try {
+                reconcile(bucket, usageScanner);
+            } catch (RuntimeException e) {
+                log.warn("Failed to reconcile storage usage of bucket {}: {}", bucket, e.getMessage());
+            }
+        }
+    }
+
+    private void reconcile(String bucket, BucketUsageScanner usageScanner) {
+        // changes recorded from here on are covered by the deltas kept during the scan
+        inexact.remove(bucket);
+        flush();
+        refresh(bucket);
+        StorageUsage before = getUsage(bucket);
+        StorageUsage scanned = usageScanner.scan(bucket);
+        long bytesCorrection = scanned.bytes() - before.bytes();
+        long objectsCorrection = scanned.objects() - before.objects();
+        if (bytesCorrection != 0 || objectsCorrection != 0) {
+            log.info("Correcting storage usage of bucket {} by {} bytes, {} objects",
+                    bucket, bytesCorrection, objectsCorrection);
+            record(bucket, bytesCorrection, objectsCorrection);
+            flush();
+        }
+    }
+
+    @Override
+    public void destroy() {
+        reconciler.shutdownNow();
+    }
+
+    private static final class Counter {
+        private final AtomicLong bytes = new AtomicLong();
+        private final AtomicLong objects = new AtomicLong();
+        private final AtomicLong pendingBytes = new AtomicLong();
+        private final AtomicLong pendingObjects = new AtomicLong();
+    }
+}
@@ -0,0 +1,182 @@
+package com.tsu.api.service.storage;
+
+import com.google.cloud.WriteChannel;
+import com.google.cloud.storage.Blob;
+import com.google.cloud.storage.BlobId;
+import com.google.cloud.storage.BlobInfo;
+import com.google.cloud.storage.Storage;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Decorates the GCS client used by the store provider so that every object write and delete is
+ * recorded in the {@link StorageUsageTracker}, and writes that would exceed the bucket quota are
+ * rejected before any data is sent.
+ * <p>
+ * The store provider's own object API lives in bx-entry, so the decorator sits one level down on
+ * the {@link Storage} interface the provider writes through. No extra GCS calls are made: a write
+ * is recorded as a new object of the size reported back, so an overwrite counts the old copy
+ * twice, and a delete only knows that one object is gone, not how large it was. Both errors are
+ * left to the reconcile; buckets with deletes of unknown size are reconciled early, see
+ * {@link StorageUsageTracker#markInexact}. Any other call is passed through unchanged.
+ */
+public final class UsageTrackingStorage implements InvocationHandler {
+
+    private final Storage delegate;
+    private final StorageUsageTracker tracker;
+
+    private UsageTrackingStorage(Storage delegate, StorageUsageTracker tracker) {
+        this.delegate = delegate;
+        this.tracker = tracker;
+    }
+
+    public static Storage wrap(Storage delegate, StorageUsageTracker tracker) {
+        return (Storage) Proxy.newProxyInstance(Storage.class.getClassLoader(), new Class<?>[]{Storage.class},
+                new UsageTrackingStorage(delegate, tracker));
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        String name = method.getName();
+        if (args != null && args.length > 0) {
+            if (("create".equals(name) || "createFrom".equals(name)) && args[0] instanceof BlobInfo info) {
+                return create(method, args, info);
+            }
+            if ("writer".equals(name) && args[0] instanceof BlobInfo info) {
+                return writer(method, args, info);
+            }
+            if ("delete".equals(name)) {
+                List<BlobId> ids = blobIds(args);
+                if (ids != null) {
+                    return delete(method, args, ids);
+                }
+            }
+        }
+        return call(method, args);
+    }
+
+    private Object create(Method method, Object[] args, BlobInfo info) throws Throwable {
+        long size = knownSize(args);
+        if (!tracker.isWithinQuota(info.getBucket(), size)) {
+            throw new StorageQuotaExceededException(info.getBucket());
+        }
+        Object result = call(method, args);
+        if (result instanceof Blob blob) {
+            tracker.recordWrite(info.getBucket(), blob.getSize() == null ? size : blob.getSize());
+        }
+        return result;
+    }
+
+    private Object writer(Method method, Object[] args, BlobInfo info) throws Throwable {
+        if (!tracker.isWithinQuota(info.getBucket(), 0)) {
+            throw new StorageQuotaExceededException(info.getBucket());
+        }
+        WriteChannel channel = (WriteChannel) call(method, args);
+        return Proxy.newProxyInstance(WriteChannel.class.getClassLoader(), new Class<?>[]{WriteChannel.class},
+                new CountingChannel(channel, info.getBucket()));
+    }
+
+    private Object delete(Method method, Object[] args, List<BlobId> ids) throws Throwable {
+        Object result = call(method, args);
+        for (int i = 0; i < ids.size(); i++) {
+            boolean deleted = result instanceof List<?> results ? Boolean.TRUE.equals(results.get(i)) : Boolean.TRUE.equals(result);
+            if (deleted) {
+                // the size is not returned; the bytes are corrected by an early reconcile
+                tracker.record(ids.get(i).getBucket(), 0, -1);
+                tracker.markInexact(ids.get(i).getBucket());
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return the blobs addressed by a delete call, or null for bucket deletes
+     */
+    @SuppressWarnings("unchecked")
+    private static List<BlobId> blobIds(Object[] args) {
+        if (args[0] instanceof BlobId id) {
+            return List.of(id);
+        }
+        if (args[0] instanceof BlobId[] ids) {
+            return Arrays.asList(ids);
+        }
+        if (args[0] instanceof Iterable<?> ids) {
+            List<BlobId> list = new ArrayList<>();
+            ((Iterable<BlobId>) ids).forEach(list::add);
+            return list;
+        }
+        if (args.length > 1 && args[0] instanceof String bucket && args[1] instanceof String blob) {
+            return List.of(BlobId.of(bucket, blob));
+        }
+        return null;
+    }
+
+    /**
+     * @return the size of the payload when the call carries it up front, otherwise 0
+     */
+    private static long knownSize(Object[] args) throws IOException {
+        if (args.length > 1 && args[1] instanceof byte[] content) {
+            return args.length > 3 && args[3] instanceof Integer length ? length : content.length;
+        }
+        if (args.length > 1 && args[1] instanceof Path path) {
+            return Files.size(path);
+        }
+        return 0;
+    }
+
+    private Object call(Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(delegate, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Counts bytes written through a resumable upload, enforces the quota as they arrive and
+     * records the object once the upload completes.
+     */
+    private final class CountingChannel implements InvocationHandler {
+
+        private final WriteChannel channel;
+        private final String bucket;
+        private long written;
+
+        CountingChannel(WriteChannel channel, String bucket) {
+            this.channel = channel;
+            this.bucket = bucket;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            if ("write".equals(method.getName()) && args != null && args[0] instanceof ByteBuffer buffer) {
+                if (!tracker.isWithinQuota(bucket, written + buffer.remaining())) {
+                    throw new IOException(new StorageQuotaExceededException(bucket));
+                }
+            }
+            boolean closing = "close".equals(method.getName()) && channel.isOpen();
+            Object result;
+            try {
+                result = method.invoke(channel, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+            if ("write".equals(method.getName()) && result instanceof Integer count) {
+                written += count;
+            } else if (closing) {
+                tracker.recordWrite(bucket, written);
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,270 @@
+package com.tsu.api.service.teardown;
+
+import com.tsu.api.config.TeardownConfig;
+import com.tsu.api.http.res.NamespaceChangeEvent;
+import com.tsu.api.service.cache.CacheInvalidationBus;
+import com.tsu.api.service.cache.CacheRegion;
+import com.tsu.api.service.event.NamespaceChangeFeed;
+import com.tsu.api.service.storage.BucketDrainer;
+import com.tsu.api.service.storage.StorageUsage;
+import com.tsu.api.service.storage.StorageUsageTracker;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Tears down expired namespaces: drains and deletes the bucket, then purges the database rows.
+ * <p>
+ * Progress is checkpointed in {@code namespace_teardown}: namespaces are claimed one at a time
+ * with a lease, move from {@code draining} to {@code purging} to {@code done}, and the lease is
+ * renewed after every drain round and purge chunk. Every phase is idempotent, so an instance that
+ * crashes mid-way only leaves a lease behind, and the next run on any instance resumes once the
+ * lease has expired. Before draining and again before purging the namespace is checked; if it is
+ * no longer expired, the teardown is dropped.
+ * <p>
+ * Runs are triggered by the scheduler but execute on their own thread, so a long drain never
+ * holds up other scheduled tasks. Object deletes go out in parallel batches on a small dedicated
+ * pool, and rows are purged in short chunked transactions, so request threads and the connection
+ * pool are never held for long.
+ */
+@Slf4j
+@Component
+public class NamespaceTeardownService implements DisposableBean {
+
+    static final String DRAINING = "draining";
+    static final String PURGING = "purging";
+    static final String DONE = "done";
+
+    private static final String RENEW_LEASE = """
+            UPDATE namespace_teardown
+            SET lease_until = now() + make_interval(secs => ?), updated_at = now()
+            WHERE namespace_id = ?
+            """;
+
+    private final TeardownConfig config;
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectProvider<BucketDrainer> drainer;
+    private final StorageUsageTracker usageTracker;
+    private final CacheInvalidationBus invalidationBus;
+    private final NamespaceChangeFeed changeFeed;
+    private final MeterRegistry meterRegistry;
+    private final TransactionTemplate chunkTransaction;
+    private final ExecutorService runner;
+    private final ExecutorService deletePool;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    public NamespaceTeardownService(TeardownConfig config, JdbcTemplate jdbcTemplate,
+                                    ObjectProvider<BucketDrainer> drainer, StorageUsageTracker usageTracker,
+                                    CacheInvalidationBus invalidationBus, NamespaceChangeFeed changeFeed,
+                                    PlatformTransactionManager transactionManager, MeterRegistry meterRegistry) {
+        this.config = config;
+        this.jdbcTemplate = jdbcTemplate;
+        this.drainer = drainer;
+        this.usageTracker = usageTracker;
+        this.invalidationBus = invalidationBus;
+        this.changeFeed = changeFeed;
+        this.meterRegistry = meterRegistry;
+        this.chunkTransaction = new TransactionTemplate(transactionManager);
+        this.chunkTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.runner = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "namespace-teardown-runner");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.deletePool = Executors.newFixedThreadPool(Math.max(config.getParallelism(), 1), runnable -> {
+            Thread thread = new Thread(runnable, "namespace-teardown");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Hand a run to the teardown thread, unless the previous one is still going.
+     */
+    @Scheduled(fixedDelayString = "${teardown.interval:3600000}", initialDelayString = "${teardown.initial-delay:300000}")
+    public void schedule() {
+        if (config.isEnabled() && running.compareAndSet(false, true)) {
+            runner.execute(() -> {
+                try {
+                    run();
+                } finally {
+                    running.set(false);
+                }
+            });
+        }
+    }
+
+    private void run() {
+        BucketDrainer bucketDrainer = drainer.getIfAvailable();
+        if (bucketDrainer == null) {
+            log.warn("Namespace teardown is enabled but no bucket drainer is configured for this profile");
+            return;
+        }
+        try {
+            enqueueExpired();
+        } catch (RuntimeException e) {
+            log.warn("Failed to look up expired namespaces: {}", e.getMessage());
+        }
+        Map<String, Object> row;
+        while (!Thread.currentThread().isInterrupted() && (row = claimNext()) != null) {
+            UUID namespaceId = (UUID) row.get("namespace_id");
+            try {
+                teardown(namespaceId, (String) row.get("uri"), (String) row.get("bucket"),
+                        (String) row.get("phase"), bucketDrainer);
+            } catch (RuntimeException e) {
+                // keep the lease: the namespace is retried once it expires
+                log.warn("Teardown of namespace {} failed, will resume later: {}", namespaceId, e.getMessage());
+                meterRegistry.counter("namespace.teardown.failures").increment();
+            }
+        }
+    }
+
+    private void enqueueExpired() {
+        List<Object[]> expired = jdbcTemplate.query(config.getExpiredQuery(),
+                (rs, rowNum) -> new Object[]{rs.getObject(1, UUID.class), rs.getString(2), rs.getString(3)},
+                config.getEnqueueLimit());
+        if (expired.isEmpty()) {
+            return;
+        }
+        int[] queued = jdbcTemplate.batchUpdate("""
+                INSERT INTO namespace_teardown (namespace_id, uri, bucket, phase)
+                VALUES (?, ?, ?, 'draining')
+                ON CONFLICT (namespace_id) DO NOTHING
+                """, expired);
+        log.debug("Checked {} expired namespaces, {} newly queued for teardown",
+                expired.size(), Arrays.stream(queued).filter(n -> n > 0).count());
+    }
+
+    /**
+     * Claim the oldest unfinished teardown whose lease has expired, so that each runs on one
+     * instance only and concurrent runs on other instances pick up the next one.
+     *
+     * @return the claimed row, or null when nothing is left to claim
+     */
+    private Map<String, Object> claimNext() {
+        List<Map<String, Object>> claimed = jdbcTemplate.queryForList("""
+                UPDATE namespace_teardown
+                SET lease_until = now() + make_interval(secs => ?), updated_at = now()
+                WHERE namespace_id = (
+                    SELECT namespace_id FROM namespace_teardown
+                    WHERE phase <> 'done' AND (lease_until IS NULL OR lease_until < now())
+                    ORDER BY started_at
+                    LIMIT 1
+                    FOR UPDATE SKIP LOCKED)
+                RETURNING namespace_id, uri, bucket, phase
+                """, config.getLeaseDuration());
+        return claimed.isEmpty() ? null : claimed.get(0);
+    }
+
+    private void teardown(UUID namespaceId, String uri, String bucket, String phase, BucketDrainer bucketDrainer) {
+        long start = System.currentTimeMillis();
+        if (DRAINING.equals(phase)) {
+            if (cancelIfRenewed(namespaceId)) {
+                return;
+            }
+            if (bucket != null) {
+                drain(namespaceId, bucket, bucketDrainer);
+                bucketDrainer.deleteBucket(bucket);
+                usageTracker.forget(bucket);
+            }
+            checkpoint(namespaceId, PURGING);
+        }
+        if (cancelIfRenewed(namespaceId)) {
+            log.warn("Namespace {} was renewed after its bucket {} had been removed", namespaceId, bucket);
+            return;
+        }
+        long rows = purge(namespaceId);
+        checkpoint(namespaceId, DONE);
+
+        invalidationBus.publish(CacheRegion.namespace, namespaceId.toString());
+        invalidationBus.publish(CacheRegion.uri, uri);
+        changeFeed.publish(NamespaceChangeEvent.builder()
+                .typ(NamespaceChangeEvent.DELETED)
+                .nsId(namespaceId.toString())
+                .uri(uri)
+                .build());
+        meterRegistry.counter("namespace.teardown.completed").increment();
+        log.info("Tore down expired namespace {} ({}): bucket {} removed, {} rows purged in {}ms",
+                namespaceId, uri, bucket, rows, System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Drop the teardown when the namespace has been extended since it was queued. A namespace
+     * row that is already gone does not count as renewed, so an interrupted purge still finishes.
+     */
+    private boolean cancelIfRenewed(UUID namespaceId) {
+        Integer renewed = jdbcTemplate.queryForObject(config.getRenewedQuery(), Integer.class, namespaceId);
+        if (renewed == null || renewed == 0) {
+            return false;
+        }
+        jdbcTemplate.update("DELETE FROM namespace_teardown WHERE namespace_id = ?", namespaceId);
+        meterRegistry.counter("namespace.teardown.cancelled").increment();
+        log.info("Namespace {} is no longer expired, teardown cancelled", namespaceId);
+        return true;
+    }
+
+    private void drain(UUID namespaceId, String bucket, BucketDrainer bucketDrainer) {
+        while (true) {
+            StorageUsage deleted = bucketDrainer.drainRound(bucket, config.getListSize(),
+                    config.getDeleteBatchSize(), deletePool);
+            if (deleted.objects() == 0) {
+                return;
+            }
+            meterRegistry.counter("namespace.teardown.objects").increment(deleted.objects());
+            // saving progress also renews the lease while a large bucket drains
+            jdbcTemplate.update("""
+                    UPDATE namespace_teardown
+                    SET objects_deleted = objects_deleted + ?, bytes_deleted = bytes_deleted + ?,
+                        lease_until = now() + make_interval(secs => ?), updated_at = now()
+                    WHERE namespace_id = ?
+                    """, deleted.objects(), deleted.bytes(), config.getLeaseDuration(), namespaceId);
+        }
+    }
+
+    /**
+     * Run each purge statement in its own short transactions until it deletes nothing more. Every
+     * chunk renews the lease, so a long purge is not resumed by another instance meanwhile.
+     */
+    private long purge(UUID namespaceId) {
+        long total = 0;
+        for (String statement : config.getPurgeStatements()) {
+            while (true) {
+                Integer rows = chunkTransaction.execute(status -> {
+                    jdbcTemplate.update(RENEW_LEASE, config.getLeaseDuration(), namespaceId);
+                    return jdbcTemplate.update(statement, namespaceId, config.getPurgeChunkSize());
+                });
+                if (rows == null || rows == 0) {
+                    break;
+                }
+                total += rows;
+            }
+        }
+        return total;
+    }
+
+    private void checkpoint(UUID namespaceId, String phase) {
+        jdbcTemplate.update("UPDATE namespace_teardown SET phase = ?, updated_at = now() WHERE namespace_id = ?",
+                phase, namespaceId);
+    }
+
+    @Override
+    public void destroy() {
+        runner.shutdownNow();
+        deletePool.shutdownNow();
+    }
+}
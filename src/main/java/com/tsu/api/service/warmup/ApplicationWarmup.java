@@ -0,0 +1,247 @@
+package com.tsu.api.service.warmup;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.cloud.storage.Storage;
+import com.tsu.api.config.WarmupConfig;
+import com.tsu.api.http.res.AvailabilityCheckResponse;
+import com.tsu.api.http.res.NamespaceDetailResponse;
+import com.tsu.api.http.res.NamespaceResponse;
+import com.tsu.api.service.search.NamespaceSearchService;
+import com.tsu.common.data.ApiResponseWrapper;
+import com.tsu.common.vo.Text;
+import com.tsu.namespace.service.AppService;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.keycloak.admin.client.Keycloak;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.IntStream;
+
+/**
+ * Exercises the expensive first-request paths before the instance reports ready: pool fill,
+ * namespace lookups, Jackson serializers for the API responses, the first JWK fetch, the admin
+ * token and the first storage call. Each step is timed; the whole phase stops at the configured
+ * time budget, after which the instance reports ready regardless, even while a step is still
+ * blocked in a call it cannot interrupt.
+ */
+@Slf4j
+@Component
+public class ApplicationWarmup {
+
+    private final WarmupConfig config;
+    private final DataSource dataSource;
+    private final AppService appService;
+    private final NamespaceSearchService searchService;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate readTransaction;
+    private final ObjectProvider<JwtDecoder> jwtDecoder;
+    private final ObjectProvider<Keycloak> keycloak;
+    private final ObjectProvider<Storage> storage;
+    private final MeterRegistry meterRegistry;
+
+    private volatile boolean complete;
+    private volatile String currentStep = "pending";
+    private volatile long durationMillis;
+    private volatile long deadline;
+
+    public ApplicationWarmup(WarmupConfig config, DataSource dataSource, AppService appService,
+                             NamespaceSearchService searchService, ObjectMapper objectMapper,
+                             PlatformTransactionManager transactionManager, ObjectProvider<JwtDecoder> jwtDecoder,
+                             ObjectProvider<Keycloak> keycloak, ObjectProvider<Storage> storage,
+                             MeterRegistry meterRegistry) {
+        this.config = config;
+        this.dataSource = dataSource;
+        this.appService = appService;
+        this.searchService = searchService;
+        this.objectMapper = objectMapper;
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction.setReadOnly(true);
+        this.jwtDecoder = jwtDecoder;
+        this.keycloak = keycloak;
+        this.storage = storage;
+        this.meterRegistry = meterRegistry;
+        this.complete = !config.isEnabled();
+        Gauge.builder("warmup.complete", this, w -> w.complete ? 1 : 0).register(meterRegistry);
+    }
+
+    public boolean isComplete() {
+        return complete;
+    }
+
+    public String getCurrentStep() {
+        return currentStep;
+    }
+
+    public long getDurationMillis() {
+        return durationMillis;
+    }
+
+    /**
+     * Whether the time budget has run out since warm-up started, whether or not the current step returned.
+     */
+    public boolean isBudgetExhausted() {
+        long at = deadline;
+        return at > 0 && System.currentTimeMillis() >= at;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (complete) {
+            return;
+        }
+        deadline = System.currentTimeMillis() + config.getTimeBudget();
+        Thread thread = new Thread(this::run, "application-warmup");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private void run() {
+        long start = System.currentTimeMillis();
+        long deadline = this.deadline;
+        try {
+            step("pool", deadline, () -> prefillPool(deadline));
+            step("jwt", deadline, this::decodeJwt);
+            step("keycloak", deadline, () -> keycloak.ifAvailable(k -> k.tokenManager().getAccessToken()));
+            step("storage", deadline, () -> storage.ifAvailable(s -> s.list(Storage.BucketListOption.pageSize(1))));
+            step("namespace", deadline, () -> repeat(deadline, this::readNamespaces));
+            step("json", deadline, () -> repeat(deadline, this::serializeResponses));
+        } finally {
+            durationMillis = System.currentTimeMillis() - start;
+            meterRegistry.timer("warmup.duration").record(Duration.ofMillis(durationMillis));
+            currentStep = "done";
+            complete = true;
+            log.info("Warm-up finished in {}ms, instance is ready", durationMillis);
+        }
+    }
+
+    private void step(String name, long deadline, Runnable action) {
+        if (System.currentTimeMillis() >= deadline) {
+            log.warn("Warm-up time budget of {}ms exhausted, skipping step {}", config.getTimeBudget(), name);
+            return;
+        }
+        currentStep = name;
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            action.run();
+        } catch (RuntimeException e) {
+            log.warn("Warm-up step {} failed: {}", name, e.getMessage());
+        } finally {
+            long nanos = sample.stop(meterRegistry.timer("warmup.step", "step", name));
+            log.debug("Warm-up step {} took {}ms", name, nanos / 1_000_000);
+        }
+    }
+
+    private void repeat(long deadline, Runnable action) {
+        for (int i = 0; i < config.getIterations() && System.currentTimeMillis() < deadline; i++) {
+            action.run();
+        }
+    }
+
+    private void prefillPool(long deadline) {
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(config.getPoolPrefill(), 1));
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < config.getPoolPrefill(); i++) {
+                futures.add(executor.submit(() -> {
+                    try (Connection connection = dataSource.getConnection();
+                         Statement statement = connection.createStatement()) {
+                        statement.execute("SELECT 1");
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(Math.max(deadline - System.currentTimeMillis(), 0), TimeUnit.MILLISECONDS);
+            }
+        } catch (TimeoutException e) {
+            throw new IllegalStateException("Pool prefill did not finish within the time budget", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Pool prefill interrupted", e);
+        } catch (Exception e) {
+            throw new IllegalStateException("Pool prefill failed", e);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private void decodeJwt() {
+        JwtDecoder decoder = jwtDecoder.getIfAvailable();
+        if (decoder == null) {
+            return;
+        }
+        Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+        String header = encoder.encodeToString("{\"alg\":\"RS256\",\"kid\":\"warmup\",\"typ\":\"JWT\"}".getBytes(StandardCharsets.UTF_8));
+        String payload = encoder.encodeToString(("{\"sub\":\"warmup\",\"exp\":" + (System.currentTimeMillis() / 1000 + 60) + "}")
+                .getBytes(StandardCharsets.UTF_8));
+        try {
+            // unknown kid forces the JWK set fetch; the signature check then fails as expected
+            decoder.decode(header + "." + payload + "." + encoder.encodeToString(new byte[256]));
+        } catch (RuntimeException expected) {
+            log.debug("Warm-up JWT rejected as expected: {}", expected.getMessage());
+        }
+    }
+
+    private void readNamespaces() {
+        readTransaction.executeWithoutResult(status -> {
+            appService.findNamespaceIdByUri(Text.of("warmup-probe"));
+            appService.findNamespaceIdByName(Text.of("warmup-probe"));
+            appService.findNamespaceContextByUri(Text.of("warmup-probe"));
+        });
+        searchService.search("warm", 10);
+    }
+
+    private void serializeResponses() {
+        try {
+            List<NamespaceResponse> list = IntStream.range(0, 20)
+                    .mapToObj(i -> NamespaceResponse.builder()
+                            .id("00000000-0000-0000-0000-00000000000" + (i % 10))
+                            .name("warmup " + i)
+                            .displayName("warmup " + i)
+                            .description("warm-up namespace")
+                            .status("active")
+                            .createdAt(LocalDateTime.now())
+                            .updatedAt(LocalDateTime.now())
+                            .visibility("public")
+                            .accessLevel("open")
+                            .contextPath("warmup-" + i)
+                            .build())
+                    .toList();
+            objectMapper.writeValueAsBytes(ApiResponseWrapper.success(list, "Namespaces retrieved successfully"));
+            objectMapper.writeValueAsBytes(ApiResponseWrapper.success(NamespaceDetailResponse.builder()
+                    .id("00000000-0000-0000-0000-000000000000")
+                    .name("warmup")
+                    .status("active")
+                    .createdAt(LocalDateTime.now())
+                    .build(), "Namespace retrieved successfully"));
+            objectMapper.writeValueAsBytes(ApiResponseWrapper.success(AvailabilityCheckResponse.builder()
+                    .avb(false)
+                    .sug("warmup-1234")
+                    .build(), "URI availability checked successfully"));
+        } catch (Exception e) {
+            throw new IllegalStateException("Serialization warm-up failed", e);
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.tsu.api.service.warmup;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+/**
+ * Reports OUT_OF_SERVICE until {@link ApplicationWarmup} finished or its time budget ran out.
+ * Included in the readiness group, so the instance receives traffic only once it is warm, and a
+ * step stuck on a slow dependency cannot hold readiness past the budget.
+ */
+@Component
+@RequiredArgsConstructor
+public class WarmupHealthIndicator implements HealthIndicator {
+
+    private final ApplicationWarmup warmup;
+
+    @Override
+    public Health health() {
+        if (warmup.isComplete()) {
+            return Health.up().withDetail("durationMs", warmup.getDurationMillis()).build();
+        }
+        if (warmup.isBudgetExhausted()) {
+            return Health.up().withDetail("budgetExhausted", true).withDetail("step", warmup.getCurrentStep()).build();
+        }
+        return Health.outOfService().withDetail("step", warmup.getCurrentStep()).build();
+    }
+}
@@ -0,0 +1,24 @@
+-- Tables owned by bxspace-api, applied by the app-upgrade run (ApiSchemaUpgrade). Statements must stay idempotent.
+
+CREATE TABLE IF NOT EXISTS namespace_storage_usage (
+    bucket        VARCHAR(255) PRIMARY KEY,
+    bytes         BIGINT       NOT NULL DEFAULT 0,
+    objects       BIGINT       NOT NULL DEFAULT 0,
+    reconciled_at TIMESTAMPTZ,
+    updated_at    TIMESTAMPTZ  NOT NULL DEFAULT now()
+);
+
+-- tombstone of a deleted bucket, keeps late deltas from other instances from recreating it
+ALTER TABLE namespace_storage_usage ADD COLUMN IF NOT EXISTS deleted_at TIMESTAMPTZ;
+
+CREATE TABLE IF NOT EXISTS namespace_teardown (
+    namespace_id    UUID         PRIMARY KEY,
+    uri             VARCHAR(255),
+    bucket          VARCHAR(255),
+    phase           VARCHAR(16)  NOT NULL,
+    objects_deleted BIGINT       NOT NULL DEFAULT 0,
+    bytes_deleted   BIGINT       NOT NULL DEFAULT 0,
+    lease_until     TIMESTAMPTZ,
+    started_at      TIMESTAMPTZ  NOT NULL DEFAULT now(),
+    updated_at      TIMESTAMPTZ  NOT NULL DEFAULT now()
+);
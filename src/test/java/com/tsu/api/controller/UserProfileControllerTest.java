@@ -0,0 +1,43 @@
+package com.tsu.api.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tsu.api.service.patch.JsonMergePatch;
+import com.tsu.namespace.api.UpdateUser;
+import com.tsu.namespace.api.UserProfile;
+import com.tsu.namespace.request.UpdateUserProfileRequest;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class UserProfileControllerTest {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @Test
+    void emptyPatchWritesEveryFieldBackUnchanged() throws Exception {
+        UserProfile profile = mock(UserProfile.class);
+        when(profile.getDisplayName()).thenReturn("Ada L.");
+        when(profile.getFirstName()).thenReturn("Ada");
+        when(profile.getLastName()).thenReturn("Lovelace");
+        when(profile.getImageURL()).thenReturn("https://img.example/ada.png");
+        when(profile.getPhone()).thenReturn("+44 20 7946 0000");
+        when(profile.getTimezoneId()).thenReturn("Europe/London");
+        when(profile.getLanguageTag()).thenReturn("en-GB");
+        when(profile.getDatePattern()).thenReturn("dd/MM/yyyy");
+        when(profile.getDatetimePattern()).thenReturn("dd/MM/yyyy HH:mm");
+
+        UpdateUserProfileRequest base = UserProfileController.toUpdateRequest(profile);
+        JsonNode merged = JsonMergePatch.apply(mapper.valueToTree(base), mapper.readTree("{}"));
+        UpdateUserProfileRequest patched = mapper.treeToValue(merged, UpdateUserProfileRequest.class);
+
+        UpdateUser written = UserProfileController.toUpdateUser(patched);
+        UpdateUser expected = new UpdateUser(profile.getDisplayName(), profile.getFirstName(), profile.getLastName(),
+                profile.getImageURL(), profile.getPhone(), profile.getTimezoneId(), profile.getLanguageTag(),
+                profile.getDatePattern(), profile.getDatetimePattern(), profile.getPreferences());
+        assertThat(written).usingRecursiveComparison().isEqualTo(expected);
+        assertThat(patched.getImageURL()).isEqualTo("https://img.example/ada.png");
+    }
+}
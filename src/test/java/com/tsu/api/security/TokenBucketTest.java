@@ -0,0 +1,71 @@
+package com.tsu.api.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenBucketTest {
+
+    private static final long MS = 1_000_000L;
+
+    @Test
+    void admitsBurstThenReportsWaitUntilNextToken() {
+        TokenBucket bucket = new TokenBucket(10, 4);
+        long now = 1_000 * MS;
+
+        for (int i = 0; i < 5; i++) {
+            assertThat(bucket.tryAcquire(now)).isZero();
+        }
+        assertThat(bucket.tryAcquire(now)).isEqualTo(100 * MS);
+        assertThat(bucket.tryAcquire(now + 50 * MS)).isEqualTo(50 * MS);
+        assertThat(bucket.tryAcquire(now + 100 * MS)).isZero();
+        assertThat(bucket.tryAcquire(now + 100 * MS)).isPositive();
+    }
+
+    @Test
+    void sustainsConfiguredRate() {
+        TokenBucket bucket = new TokenBucket(10, 0);
+        long now = 0;
+        int admitted = 0;
+        for (int ms = 0; ms < 10_000; ms++) {
+            if (bucket.tryAcquire(now + ms * MS) == 0) {
+                admitted++;
+            }
+        }
+        assertThat(admitted).isEqualTo(100);
+    }
+
+    @Test
+    void becomesIdleOnceRefilled() {
+        TokenBucket bucket = new TokenBucket(10, 4);
+        assertThat(bucket.isIdle(0)).isTrue();
+
+        bucket.tryAcquire(0);
+        bucket.tryAcquire(0);
+
+        assertThat(bucket.isIdle(100 * MS)).isFalse();
+        assertThat(bucket.isIdle(200 * MS)).isTrue();
+    }
+
+    @Test
+    void concurrentCallersNeverExceedBurst() throws InterruptedException {
+        TokenBucket bucket = new TokenBucket(1, 49);
+        AtomicInteger admitted = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        for (int i = 0; i < 1000; i++) {
+            executor.submit(() -> {
+                if (bucket.tryAcquire(0) == 0) {
+                    admitted.incrementAndGet();
+                }
+            });
+        }
+        executor.shutdown();
+        assertThat(executor.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+        assertThat(admitted.get()).isEqualTo(50);
+    }
+}
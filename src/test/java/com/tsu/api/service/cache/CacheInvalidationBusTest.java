@@ -0,0 +1,208 @@
+package com.tsu.api.service.cache;
+
+import com.tsu.api.config.CacheInvalidationConfig;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs two buses against a local Postgres to cover the NOTIFY round trip between instances.
+ */
+class CacheInvalidationBusTest {
+
+    private static EmbeddedPostgres postgres;
+    private static JdbcTemplate jdbcTemplate;
+
+    private final List<CacheInvalidationBus> buses = new ArrayList<>();
+
+    @BeforeAll
+    static void startPostgres() throws Exception {
+        postgres = EmbeddedPostgres.builder().start();
+        jdbcTemplate = new JdbcTemplate(postgres.getPostgresDatabase());
+    }
+
+    @AfterAll
+    static void stopPostgres() throws Exception {
+        postgres.close();
+    }
+
+    @AfterEach
+    void stopBuses() {
+        buses.forEach(CacheInvalidationBus::stop);
+        awaitListeners(0);
+    }
+
+    @Test
+    void publishEvictsOnOtherInstances() {
+        RecordingListener remoteListener = new RecordingListener();
+        CacheManager local = cacheManager();
+        CacheManager remote = cacheManager();
+        CacheInvalidationBus publisher = start(local, new RecordingListener(), 200);
+        start(remote, remoteListener, 200);
+        awaitListeners(2);
+        for (CacheManager manager : List.of(local, remote)) {
+            manager.getCache("namespaces").put("a", "A");
+            manager.getCache("namespaces").put("b", "B");
+        }
+
+        publisher.publish(CacheRegion.namespace, "a");
+
+        assertThat(local.getCache("namespaces").get("a")).isNull();
+        await(() -> remote.getCache("namespaces").get("a") == null);
+        assertThat(remote.getCache("namespaces").get("b")).isNotNull();
+        await(() -> remoteListener.remote.contains(Set.of("a")));
+    }
+
+    @Test
+    void largeBatchesAreSplitIntoSeveralNotifications() {
+        RecordingListener remoteListener = new RecordingListener();
+        CacheManager remote = cacheManager();
+        CacheInvalidationBus publisher = start(cacheManager(), new RecordingListener(), 10_000);
+        start(remote, remoteListener, 10_000);
+        awaitListeners(2);
+        String[] keys = new String[1000];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = UUID.randomUUID().toString();
+            remote.getCache("namespaces").put(keys[i], i);
+        }
+
+        List<String> payloads = publisher.toPayloads(CacheRegion.namespace, Arrays.asList(keys));
+        assertThat(payloads).hasSizeGreaterThan(1);
+        assertThat(payloads).allSatisfy(payload ->
+                assertThat(payload.getBytes(StandardCharsets.UTF_8).length)
+                        .isLessThanOrEqualTo(CacheInvalidationBus.MAX_PAYLOAD_BYTES));
+        Set<String> split = new HashSet<>();
+        payloads.forEach(payload -> split.addAll(Arrays.asList(payload.split("\\|", 3)[2].split(","))));
+        assertThat(split).containsExactlyInAnyOrder(keys);
+
+        publisher.publish(CacheRegion.namespace, keys);
+
+        await(() -> Arrays.stream(keys).allMatch(key -> remote.getCache("namespaces").get(key) == null));
+        assertThat(remoteListener.cleared).isEmpty();
+    }
+
+    @Test
+    void regionClearIsSentAsSingleWildcard() {
+        CacheInvalidationBus bus = new CacheInvalidationBus(config(200), jdbcTemplate, dataSourceProperties(),
+                provider(cacheManager()).getBeanProvider(CacheManager.class),
+                provider(cacheManager()).getBeanProvider(CacheInvalidationListener.class));
+
+        List<String> payloads = bus.toPayloads(CacheRegion.uri, List.of("x", CacheInvalidationBus.ALL_KEYS));
+
+        assertThat(payloads).hasSize(1);
+        assertThat(payloads.get(0)).endsWith("|uri|" + CacheInvalidationBus.ALL_KEYS);
+    }
+
+    @Test
+    void everyRegionIsClearedAfterReconnect() {
+        RecordingListener listener = new RecordingListener();
+        CacheManager manager = cacheManager();
+        start(manager, listener, 200);
+        awaitListeners(1);
+        manager.getCache("namespaces").put("a", "A");
+        manager.getCache("users").put("u", "U");
+
+        jdbcTemplate.queryForList("""
+                SELECT pg_terminate_backend(pid) FROM pg_stat_activity
+                WHERE query LIKE 'LISTEN%' AND pid <> pg_backend_pid()
+                """);
+
+        await(() -> listener.cleared.containsAll(EnumSet.allOf(CacheRegion.class)));
+        assertThat(manager.getCache("namespaces").get("a")).isNull();
+        assertThat(manager.getCache("users").get("u")).isNull();
+        awaitListeners(1);
+    }
+
+    private CacheInvalidationBus start(CacheManager manager, CacheInvalidationListener listener, int maxKeys) {
+        DefaultListableBeanFactory beans = provider(manager);
+        beans.registerSingleton("listener", listener);
+        CacheInvalidationBus bus = new CacheInvalidationBus(config(maxKeys), jdbcTemplate, dataSourceProperties(),
+                beans.getBeanProvider(CacheManager.class), beans.getBeanProvider(CacheInvalidationListener.class));
+        bus.start();
+        buses.add(bus);
+        return bus;
+    }
+
+    private static DefaultListableBeanFactory provider(CacheManager manager) {
+        DefaultListableBeanFactory beans = new DefaultListableBeanFactory();
+        beans.registerSingleton("cacheManager", manager);
+        return beans;
+    }
+
+    private static CacheManager cacheManager() {
+        return new ConcurrentMapCacheManager("namespaces", "users", "namespaceUris");
+    }
+
+    private static CacheInvalidationConfig config(int maxKeys) {
+        CacheInvalidationConfig config = new CacheInvalidationConfig();
+        config.setChannel("bx_cache_invalidation_test");
+        config.setFlushInterval(20);
+        config.setPollTimeout(100);
+        config.setReconnectDelay(100);
+        config.setMaxKeysPerRegion(maxKeys);
+        return config;
+    }
+
+    private static DataSourceProperties dataSourceProperties() {
+        DataSourceProperties properties = new DataSourceProperties();
+        properties.setUrl(postgres.getJdbcUrl("postgres", "postgres"));
+        properties.setUsername("postgres");
+        properties.setPassword("postgres");
+        return properties;
+    }
+
+    private static void awaitListeners(int count) {
+        await(() -> Objects.equals(jdbcTemplate.queryForObject("""
+                SELECT count(*) FROM pg_stat_activity WHERE query LIKE 'LISTEN%' AND pid <> pg_backend_pid()
+                """, Integer.class), count));
+    }
+
+    private static void await(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) {
+                throw new AssertionError("Condition not met within 10s");
+            }
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new AssertionError(e);
+            }
+        }
+    }
+
+    private static final class RecordingListener implements CacheInvalidationListener {
+        private final List<Set<String>> remote = new CopyOnWriteArrayList<>();
+        private final Set<CacheRegion> cleared = Collections.synchronizedSet(EnumSet.noneOf(CacheRegion.class));
+
+        @Override
+        public void onInvalidate(CacheRegion region, Set<String> keys) {
+        }
+
+        @Override
+        public void onInvalidateAll(CacheRegion region) {
+            cleared.add(region);
+        }
+
+        @Override
+        public void onRemoteInvalidate(CacheRegion region, Set<String> keys) {
+            remote.add(keys);
+        }
+    }
+}
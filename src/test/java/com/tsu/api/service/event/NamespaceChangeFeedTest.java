@@ -0,0 +1,61 @@
+package com.tsu.api.service.event;
+
+import com.tsu.api.config.NamespaceChangeFeedConfig;
+import com.tsu.api.http.res.NamespaceChangeEvent;
+import com.tsu.api.service.cache.CacheRegion;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.codec.ServerSentEvent;
+import reactor.core.publisher.Flux;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+class NamespaceChangeFeedTest {
+
+    private final NamespaceChangeFeed feed = new NamespaceChangeFeed(new NamespaceChangeFeedConfig());
+
+    @Test
+    void creatorReceivesCreatedEventOfNewNamespace() throws InterruptedException {
+        List<NamespaceChangeEvent> alice = received(feed.subscribe("alice", Set.of("ns-1"), null));
+        List<NamespaceChangeEvent> bob = received(feed.subscribe("bob", Set.of("ns-1"), null));
+
+        // what NamespaceService.createNamespace publishes on commit, in this order
+        feed.onInvalidate(CacheRegion.member, Set.of(NamespaceChangeFeed.memberKey("alice", "ns-2").orElseThrow()));
+        feed.publish(NamespaceChangeEvent.builder().typ(NamespaceChangeEvent.CREATED).nsId("ns-2").build());
+
+        Thread.sleep(200);
+        assertThat(alice).extracting(NamespaceChangeEvent::getTyp, NamespaceChangeEvent::getNsId)
+                .containsExactly(tuple(NamespaceChangeEvent.CREATED, "ns-2"));
+        assertThat(bob).isEmpty();
+    }
+
+    @Test
+    void remoteChangesToGrantedNamespaceAreRelayed() throws InterruptedException {
+        List<NamespaceChangeEvent> alice = received(feed.subscribe("alice", Set.of(), null));
+
+        feed.onRemoteInvalidate(CacheRegion.namespace, Set.of("ns-3"));
+        feed.onInvalidate(CacheRegion.member, Set.of("alice:ns-3"));
+        feed.onRemoteInvalidate(CacheRegion.namespace, Set.of("ns-3"));
+
+        Thread.sleep(200);
+        assertThat(alice).extracting(NamespaceChangeEvent::getTyp).containsExactly(NamespaceChangeEvent.STALE);
+    }
+
+    @Test
+    void principalsThatCannotTravelOnTheBusAreNotKeyed() {
+        assertThat(NamespaceChangeFeed.memberKey("a|b", "ns")).isEmpty();
+        assertThat(NamespaceChangeFeed.memberKey(null, "ns")).isEmpty();
+        assertThat(NamespaceChangeFeed.memberKey("alice", "ns")).contains("alice:ns");
+    }
+
+    private static List<NamespaceChangeEvent> received(Flux<ServerSentEvent<NamespaceChangeEvent>> stream) {
+        List<NamespaceChangeEvent> events = new CopyOnWriteArrayList<>();
+        // heartbeats carry no data
+        stream.filter(sse -> sse.data() != null).map(ServerSentEvent::data).subscribe(events::add);
+        return events;
+    }
+}
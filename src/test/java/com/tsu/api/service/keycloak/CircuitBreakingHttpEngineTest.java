@@ -0,0 +1,94 @@
+package com.tsu.api.service.keycloak;
+
+import com.tsu.api.support.StubKeycloakServer;
+import jakarta.ws.rs.ProcessingException;
+import jakarta.ws.rs.client.Client;
+import jakarta.ws.rs.core.Response;
+import org.jboss.resteasy.client.jaxrs.ResteasyClientBuilder;
+import org.jboss.resteasy.client.jaxrs.engines.ClientHttpEngineBuilder43;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Drives the admin client engine against a stub Keycloak through a full open, half-open and
+ * close cycle of the circuit.
+ */
+class CircuitBreakingHttpEngineTest {
+
+    private static final long OPEN_DURATION = 200;
+
+    private StubKeycloakServer keycloak;
+    private CircuitBreaker breaker;
+    private Client client;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        keycloak = new StubKeycloakServer();
+        breaker = new CircuitBreaker("keycloak", 3, OPEN_DURATION);
+        ResteasyClientBuilder builder = (ResteasyClientBuilder) ResteasyClientBuilder.newBuilder();
+        builder.httpEngine(new CircuitBreakingHttpEngine(
+                new ClientHttpEngineBuilder43().resteasyClientBuilder(builder).build(), breaker, 5000));
+        client = builder.build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        client.close();
+        keycloak.close();
+    }
+
+    @Test
+    void opensOnFailuresFailsFastAndClosesAfterSuccessfulTrial() throws InterruptedException {
+        assertThat(call()).isEqualTo(200);
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+
+        keycloak.setFailing(true);
+        for (int i = 0; i < 3; i++) {
+            assertThat(call()).isEqualTo(503);
+        }
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+
+        // open: rejected without reaching Keycloak
+        int received = keycloak.requestCount();
+        assertThatThrownBy(this::call).isInstanceOf(ProcessingException.class);
+        assertThat(keycloak.requestCount()).isEqualTo(received);
+
+        // half-open trial that fails opens the circuit again
+        Thread.sleep(OPEN_DURATION + 50);
+        assertThat(call()).isEqualTo(503);
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThatThrownBy(this::call).isInstanceOf(ProcessingException.class);
+
+        // half-open trial that succeeds closes it
+        keycloak.setFailing(false);
+        Thread.sleep(OPEN_DURATION + 50);
+        assertThat(call()).isEqualTo(200);
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+        assertThat(call()).isEqualTo(200);
+    }
+
+    @Test
+    void onlyOneTrialCallIsAllowedWhileHalfOpen() throws InterruptedException {
+        keycloak.setFailing(true);
+        for (int i = 0; i < 3; i++) {
+            call();
+        }
+        Thread.sleep(OPEN_DURATION + 50);
+
+        assertThat(breaker.tryAcquirePermission()).isTrue();
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.HALF_OPEN);
+        assertThat(breaker.tryAcquirePermission()).isFalse();
+    }
+
+    private int call() {
+        try (Response response = client.target(keycloak.issuer() + "/.well-known/openid-configuration")
+                .request()
+                .get()) {
+            return response.getStatus();
+        }
+    }
+}
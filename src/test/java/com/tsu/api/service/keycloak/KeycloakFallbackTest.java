@@ -0,0 +1,140 @@
+package com.tsu.api.service.keycloak;
+
+import com.tsu.api.config.KeycloakClientConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.ws.rs.ProcessingException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class KeycloakFallbackTest {
+
+    private final MutableClock clock = new MutableClock();
+    private CircuitBreaker breaker;
+    private KeycloakFallback fallback;
+
+    @BeforeEach
+    void setUp() {
+        breaker = new CircuitBreaker("keycloak", 1, 60_000);
+        KeycloakClientConfig config = new KeycloakClientConfig();
+        config.setFallbackMaxStaleness(60_000);
+        fallback = new KeycloakFallback(breaker, config, new SimpleMeterRegistry(), clock);
+        TestingAuthenticationToken authentication = new TestingAuthenticationToken("alice", null);
+        authentication.setAuthenticated(true);
+        SecurityContextHolder.getContext().setAuthentication(authentication);
+    }
+
+    @AfterEach
+    void clearContext() {
+        SecurityContextHolder.clearContext();
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void servesLastKnownValueWhileCircuitIsOpen() {
+        assertThat(fallback.callForCurrentUser("profile", () -> "v1")).isEqualTo("v1");
+        breaker.onFailure();
+        AtomicInteger calls = new AtomicInteger();
+
+        String value = fallback.callForCurrentUser("profile", () -> {
+            calls.incrementAndGet();
+            return "v2";
+        });
+
+        assertThat(value).isEqualTo("v1");
+        assertThat(calls).hasValue(0);
+    }
+
+    @Test
+    void servesLastKnownValueWhenCallFails() {
+        fallback.callForCurrentUser("profile", () -> "v1");
+
+        String value = fallback.callForCurrentUser("profile", () -> {
+            throw new ProcessingException("connection refused");
+        });
+
+        assertThat(value).isEqualTo("v1");
+    }
+
+    @Test
+    void propagatesFailureWithoutStoredValue() {
+        assertThatThrownBy(() -> fallback.callForCurrentUser("profile", () -> {
+            throw new ProcessingException("connection refused");
+        })).isInstanceOf(ProcessingException.class);
+    }
+
+    @Test
+    void storedValuesAreKeptPerUser() {
+        fallback.callForCurrentUser("profile", () -> "alice");
+        SecurityContextHolder.getContext().setAuthentication(new TestingAuthenticationToken("bob", null, "user"));
+        breaker.onFailure();
+
+        assertThatThrownBy(() -> fallback.callForCurrentUser("profile", () -> {
+            throw new ProcessingException("circuit open");
+        })).isInstanceOf(ProcessingException.class);
+    }
+
+    @Test
+    void refusesValuesOlderThanMaxStaleness() {
+        fallback.callForCurrentUser("profile", () -> "v1");
+        clock.advance(Duration.ofSeconds(61));
+
+        assertThatThrownBy(() -> fallback.callForCurrentUser("profile", () -> {
+            throw new ProcessingException("connection refused");
+        })).isInstanceOf(ProcessingException.class);
+    }
+
+    @Test
+    void marksResponsesServedFromStoredValue() {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest(), response));
+        fallback.callForCurrentUser("profile", () -> "v1");
+        assertThat(KeycloakFallback.isServedStale()).isFalse();
+        breaker.onFailure();
+
+        fallback.callForCurrentUser("profile", () -> "v2");
+
+        assertThat(KeycloakFallback.isServedStale()).isTrue();
+        assertThat(response.getHeader("Warning")).startsWith("110");
+    }
+
+    private static final class MutableClock extends Clock {
+
+        private Instant now = Instant.parse("2026-01-01T00:00:00Z");
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneOffset getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.tsu.api.service.patch;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class JsonMergePatchTest {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @Test
+    void mergesNestedObjectsAndRemovesNullMembers() throws Exception {
+        JsonNode target = json("{\"a\":\"b\",\"c\":{\"d\":\"e\",\"f\":\"g\"}}");
+
+        JsonNode result = JsonMergePatch.apply(target, json("{\"a\":\"z\",\"c\":{\"f\":null}}"));
+
+        assertThat(result).isEqualTo(json("{\"a\":\"z\",\"c\":{\"d\":\"e\"}}"));
+    }
+
+    @Test
+    void replacesArraysAndScalarsWholesale() throws Exception {
+        JsonNode target = json("{\"tags\":[1,2,3],\"e\":{\"x\":1}}");
+
+        JsonNode result = JsonMergePatch.apply(target, json("{\"tags\":[4],\"e\":\"flat\"}"));
+
+        assertThat(result).isEqualTo(json("{\"tags\":[4],\"e\":\"flat\"}"));
+    }
+
+    @Test
+    void nonObjectPatchReplacesTarget() throws Exception {
+        assertThat(JsonMergePatch.apply(json("{\"a\":1}"), json("[\"x\"]"))).isEqualTo(json("[\"x\"]"));
+        assertThat(JsonMergePatch.apply(json("{\"a\":1}"), json("null")).isNull()).isTrue();
+    }
+
+    @Test
+    void objectPatchOnMissingTargetBuildsObject() throws Exception {
+        JsonNode result = JsonMergePatch.apply(null, json("{\"a\":{\"b\":null,\"c\":1}}"));
+
+        assertThat(result).isEqualTo(json("{\"a\":{\"c\":1}}"));
+    }
+
+    @Test
+    void leavesTargetUntouched() throws Exception {
+        JsonNode target = json("{\"a\":{\"b\":1}}");
+
+        JsonMergePatch.apply(target, json("{\"a\":{\"b\":2,\"c\":3}}"));
+
+        assertThat(target).isEqualTo(json("{\"a\":{\"b\":1}}"));
+    }
+
+    @Test
+    void rejectsUnknownMembersAndNonObjectPatches() throws Exception {
+        Set<String> allowed = Set.of("name", "props");
+
+        JsonMergePatch.requireMembers(json("{\"name\":\"n\",\"props\":null}"), allowed);
+        assertThatThrownBy(() -> JsonMergePatch.requireMembers(json("{\"name\":\"n\",\"owner\":\"x\",\"id\":1}"), allowed))
+                .isInstanceOf(InvalidMergePatchException.class)
+                .hasMessageContaining("id, owner");
+        assertThatThrownBy(() -> JsonMergePatch.requireMembers(json("[]"), allowed))
+                .isInstanceOf(InvalidMergePatchException.class);
+    }
+
+    private JsonNode json(String text) throws Exception {
+        return mapper.readTree(text);
+    }
+}
@@ -0,0 +1,44 @@
+package com.tsu.api.service.search;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IntPostingsTest {
+
+    @Test
+    void growsAndSkipsConsecutiveDuplicates() {
+        IntPostings postings = new IntPostings();
+        for (int i = 0; i < 100; i++) {
+            postings.add(i);
+            postings.add(i);
+        }
+
+        assertThat(postings.size()).isEqualTo(100);
+        assertThat(postings.get(42)).isEqualTo(42);
+        postings.trim();
+        postings.add(100);
+        assertThat(postings.toArray()).hasSize(101).endsWith(100);
+    }
+
+    @Test
+    void intersectsInPlace() {
+        IntPostings other = new IntPostings();
+        for (int id : new int[]{2, 3, 5, 8, 13, 21}) {
+            other.add(id);
+        }
+        int[] target = {1, 2, 3, 4, 5, 6, 7, 8, 9};
+
+        int size = IntPostings.intersect(target, target.length, other);
+
+        assertThat(size).isEqualTo(4);
+        assertThat(target).startsWith(2, 3, 5, 8);
+    }
+
+    @Test
+    void intersectionWithEmptyListIsEmpty() {
+        int[] target = {1, 2, 3};
+
+        assertThat(IntPostings.intersect(target, target.length, new IntPostings())).isZero();
+    }
+}
@@ -0,0 +1,88 @@
+package com.tsu.api.service.search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class NamespaceSearchIndexTest {
+
+    private NamespaceSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new NamespaceSearchIndex();
+        index.rebuild(List.of(
+                doc("1", "Garden Club", "garden-club", "Weekly meetups for gardeners"),
+                doc("2", "Chess Masters", "chess", "Competitive chess and gardening talk"),
+                doc("3", "Community Garden", "community-garden", "Shared plots"),
+                doc("4", "Go Players", "go", null)));
+    }
+
+    @Test
+    void shortQueriesMatchTokenPrefixes() {
+        assertThat(ids(index.search("go", 10))).containsExactly("4");
+        assertThat(ids(index.search("ga", 10))).containsExactly("1", "3");
+    }
+
+    @Test
+    void longQueriesMatchSubstringsRankedByWhereTheyMatch() {
+        // name prefix, then word prefix in the name, then description only
+        assertThat(ids(index.search("garden", 10))).containsExactly("1", "3", "2");
+        assertThat(ids(index.search("plots", 10))).containsExactly("3");
+        assertThat(index.search("xyz", 10)).isEmpty();
+    }
+
+    @Test
+    void queriesAreCaseInsensitiveAndTrimmed() {
+        assertThat(ids(index.search("  CHESS ", 10))).containsExactly("2");
+    }
+
+    @Test
+    void limitCapsResults() {
+        assertThat(index.search("garden", 2)).hasSize(2);
+        assertThat(index.search("garden", 0)).isEmpty();
+    }
+
+    @Test
+    void upsertReplacesPreviousVersion() {
+        index.upsert(doc("1", "Rose Society", "roses", "Formerly a garden club"));
+
+        assertThat(ids(index.search("rose", 10))).containsExactly("1");
+        assertThat(ids(index.search("ga", 10))).containsExactly("3");
+        assertThat(index.size()).isEqualTo(4);
+    }
+
+    @Test
+    void removeHidesDocument() {
+        index.remove("3");
+
+        assertThat(ids(index.search("garden", 10))).containsExactly("1", "2");
+        assertThat(index.size()).isEqualTo(3);
+    }
+
+    @Test
+    void compactionKeepsLiveDocuments() {
+        for (int round = 0; round < 200; round++) {
+            index.upsert(doc("4", "Go Players " + round, "go", null));
+        }
+
+        assertThat(index.size()).isEqualTo(4);
+        assertThat(index.search("go players", 10)).singleElement()
+                .extracting(NamespaceSearchIndex.Doc::name).isEqualTo("Go Players 199");
+        assertThat(ids(index.search("garden", 10))).containsExactly("1", "3", "2");
+    }
+
+    private static NamespaceSearchIndex.Doc doc(String id, String name, String uri, String description) {
+        return new NamespaceSearchIndex.Doc(id, name, uri, description);
+    }
+
+    private static List<String> ids(List<NamespaceSearchIndex.Doc> docs) {
+        List<String> ids = new ArrayList<>();
+        docs.forEach(doc -> ids.add(doc.id()));
+        return ids;
+    }
+}
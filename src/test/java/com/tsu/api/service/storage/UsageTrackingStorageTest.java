@@ -0,0 +1,99 @@
+package com.tsu.api.service.storage;
+
+import com.google.cloud.storage.Blob;
+import com.google.cloud.storage.BlobId;
+import com.google.cloud.storage.BlobInfo;
+import com.google.cloud.storage.Storage;
+import com.tsu.api.config.StorageUsageConfig;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+class UsageTrackingStorageTest {
+
+    private static final BlobId ID = BlobId.of("bucket", "object");
+
+    private Storage delegate;
+    private StorageUsageTracker tracker;
+    private Storage storage;
+
+    @BeforeEach
+    void setUp() {
+        StorageUsageConfig config = new StorageUsageConfig();
+        config.setDefaultQuotaBytes(100);
+        delegate = mock(Storage.class);
+        tracker = new StorageUsageTracker(config, null, null);
+        storage = UsageTrackingStorage.wrap(delegate, tracker);
+    }
+
+    @Test
+    void recordsNewObject() {
+        when(delegate.create(any(BlobInfo.class), any(byte[].class), any(Storage.BlobTargetOption[].class)))
+                .thenReturn(blob(10));
+
+        storage.create(BlobInfo.newBuilder(ID).build(), new byte[10]);
+
+        assertThat(tracker.getUsage("bucket")).isEqualTo(new StorageUsage(10, 1));
+    }
+
+    @Test
+    void writesCostNoExtraCalls() {
+        tracker.record("bucket", 30, 1);
+        when(delegate.create(any(BlobInfo.class), any(byte[].class), any(Storage.BlobTargetOption[].class)))
+                .thenReturn(blob(50));
+
+        storage.create(BlobInfo.newBuilder(ID).build(), new byte[50]);
+
+        // an overwrite is counted as a new object until the reconcile corrects it
+        assertThat(tracker.getUsage("bucket")).isEqualTo(new StorageUsage(80, 2));
+        verify(delegate, never()).get(any(BlobId.class), any(Storage.BlobGetOption[].class));
+    }
+
+    @Test
+    void rejectsWriteOverQuotaBeforeSending() {
+        tracker.record("bucket", 90, 1);
+
+        assertThatThrownBy(() -> storage.create(BlobInfo.newBuilder(ID).build(), new byte[20]))
+                .isInstanceOf(StorageQuotaExceededException.class);
+        verify(delegate, never()).create(any(BlobInfo.class), any(byte[].class), any(Storage.BlobTargetOption[].class));
+    }
+
+    @Test
+    void recordsDeletesAndMarksBytesForReconcile() {
+        tracker.record("bucket", 30, 3);
+        BlobId other = BlobId.of("bucket", "other");
+        when(delegate.delete(ID)).thenReturn(true);
+        when(delegate.delete(List.of(ID, other))).thenReturn(List.of(false, true));
+
+        storage.delete(ID);
+        assertThat(tracker.getUsage("bucket")).isEqualTo(new StorageUsage(30, 2));
+        assertThat(tracker.isInexact("bucket")).isTrue();
+
+        storage.delete(List.of(ID, other));
+        assertThat(tracker.getUsage("bucket")).isEqualTo(new StorageUsage(30, 1));
+        verify(delegate, never()).get(any(BlobId.class), any(Storage.BlobGetOption[].class));
+        verify(delegate, never()).get(anyList());
+    }
+
+    @Test
+    void bucketCallsPassThrough() {
+        when(delegate.delete("bucket")).thenReturn(true);
+
+        assertThat(storage.delete("bucket")).isTrue();
+        assertThat(tracker.getUsage("bucket")).isEqualTo(StorageUsage.EMPTY);
+        assertThat(tracker.isInexact("bucket")).isFalse();
+    }
+
+    private static Blob blob(long size) {
+        Blob blob = mock(Blob.class);
+        when(blob.getSize()).thenReturn(size);
+        return blob;
+    }
+}
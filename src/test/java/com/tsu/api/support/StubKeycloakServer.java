@@ -0,0 +1,129 @@
+package com.tsu.api.support;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.crypto.RSASSASigner;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Local stand-in for Keycloak: serves the realm JWKS, issues signed tokens for synthetic users
+ * and answers admin API calls with empty results. Shared by the tests and the load test harness;
+ * it can be switched into an outage where everything but the JWKS answers 503.
+ */
+public class StubKeycloakServer implements AutoCloseable {
+
+    public static final String REALM = "LOAD";
+
+    private final HttpServer server;
+    private final RSAKey key;
+    private final AtomicInteger requests = new AtomicInteger();
+    private volatile boolean failing;
+
+    public StubKeycloakServer() throws IOException, JOSEException {
+        key = new RSAKeyGenerator(2048).keyID("loadtest").generate();
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        String realmPath = "/realms/" + REALM;
+        server.createContext(realmPath + "/protocol/openid-connect/certs",
+                exchange -> respond(exchange, 200, new JWKSet(key.toPublicJWK()).toString()));
+        server.createContext(realmPath + "/protocol/openid-connect/token",
+                exchange -> respondUnlessFailing(exchange, """
+                        {"access_token":"%s","expires_in":300,"refresh_expires_in":1800,"refresh_token":"%s","token_type":"Bearer"}
+                        """.formatted(token("service-account-admin", "admin@loadtest.local"), UUID.randomUUID())));
+        server.createContext(realmPath + "/.well-known/openid-configuration",
+                exchange -> respondUnlessFailing(exchange, """
+                        {"issuer":"%s","jwks_uri":"%s/protocol/openid-connect/certs","token_endpoint":"%s/protocol/openid-connect/token"}
+                        """.formatted(issuer(), issuer(), issuer())));
+        server.createContext("/", exchange -> respondUnlessFailing(exchange, "[]"));
+        server.start();
+    }
+
+    /**
+     * Simulate an outage: every endpoint except the JWKS answers 503 until switched back.
+     */
+    public void setFailing(boolean failing) {
+        this.failing = failing;
+    }
+
+    /**
+     * @return requests received on endpoints other than the JWKS
+     */
+    public int requestCount() {
+        return requests.get();
+    }
+
+    public String baseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    public String issuer() {
+        return baseUrl() + "/realms/" + REALM;
+    }
+
+    /**
+     * Sign a one-hour access token for a synthetic user.
+     */
+    public String token(String username, String email) {
+        long now = System.currentTimeMillis();
+        JWTClaimsSet claims = new JWTClaimsSet.Builder()
+                .issuer(issuer())
+                .subject(UUID.nameUUIDFromBytes(username.getBytes(StandardCharsets.UTF_8)).toString())
+                .audience("account")
+                .issueTime(new Date(now))
+                .expirationTime(new Date(now + 3_600_000))
+                .claim("preferred_username", username)
+                .claim("email", email)
+                .claim("email_verified", true)
+                .claim("name", username)
+                .claim("realm_access", Map.of("roles", List.of("user")))
+                .build();
+        try {
+            SignedJWT jwt = new SignedJWT(new JWSHeader.Builder(JWSAlgorithm.RS256).keyID(key.getKeyID()).build(), claims);
+            jwt.sign(new RSASSASigner(key));
+            return jwt.serialize();
+        } catch (JOSEException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void respondUnlessFailing(HttpExchange exchange, String body) throws IOException {
+        requests.incrementAndGet();
+        if (failing) {
+            respond(exchange, 503, "{\"error\":\"unavailable\"}");
+        } else {
+            respond(exchange, 200, body);
+        }
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+}